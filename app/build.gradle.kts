@@ -7,6 +7,10 @@ plugins {
 
 }
 
+ksp {
+    arg("room.schemaLocation", "$projectDir/schemas")
+}
+
 android {
     namespace = "com.example.beautyapp"
     compileSdk = 35 // <-- UPDATED
@@ -43,9 +47,19 @@ android {
     buildFeatures {
         compose = true
     }
+    sourceSets {
+        // Exported Room schemas, read by MigrationTestHelper in AppDatabaseMigrationTest
+        getByName("test").assets.srcDir("$projectDir/schemas")
+    }
     //composeOptions {
         //kotlinCompilerExtensionVersion = "1.5.10"
   //  }
+    testOptions {
+        // android.util.Log and friends return defaults in JVM tests instead of throwing
+        unitTests.isReturnDefaultValues = true
+        // Robolectric tests see assets (the Room schemas above)
+        unitTests.isIncludeAndroidResources = true
+    }
     packaging {
         resources {
             excludes += "/META-INF/{AL2.0,LGPL2.1}"
@@ -83,7 +97,6 @@ dependencies {
 
     // Networking - Retrofit
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
-    implementation("com.squareup.retrofit2:converter-gson:2.9.0")
     implementation("com.squareup.okhttp3:okhttp:4.12.0")
     implementation("com.squareup.okhttp3:logging-interceptor:4.12.0")
     // Room Database
@@ -91,6 +104,11 @@ dependencies {
     implementation("androidx.room:room-runtime:$room_version")
     implementation("androidx.room:room-ktx:$room_version") // For Flow and Coroutines
     ksp("androidx.room:room-compiler:$room_version") // Use ksp instead of kapt
+    testImplementation("androidx.room:room-testing:$room_version")
+
+    // Paging 3 - Products grid
+    implementation("androidx.paging:paging-runtime-ktx:3.2.1")
+    implementation("androidx.paging:paging-compose:3.2.1")
 
 
     // Image Loading - Coil
@@ -101,9 +119,12 @@ dependencies {
     // Coroutines
     implementation("org.jetbrains.kotlinx:kotlinx-coroutines-android:1.7.3")
 
-    // Weather
-    implementation("com.squareup.moshi:moshi:1.14.0")
-    implementation("com.squareup.moshi:moshi-kotlin:1.14.0")
+    // Background catalog / image prefetch
+    implementation("androidx.work:work-runtime-ktx:2.9.0")
+
+    // JSON - Moshi with generated adapters for every API model (no kotlin-reflect)
+    implementation("com.squareup.moshi:moshi:1.15.1")
+    ksp("com.squareup.moshi:moshi-kotlin-codegen:1.15.1")
     implementation("com.squareup.retrofit2:converter-moshi:2.9.0")
 
     // YouTube Player
@@ -125,6 +146,13 @@ dependencies {
 
     // Testing
     testImplementation("junit:junit:4.13.2")
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+    // Reflective adapters, only as the baseline in MoshiAdapterTimingTest
+    testImplementation("com.squareup.moshi:moshi-kotlin:1.15.1")
+    // WorkManager's test driver needs a Context, Robolectric provides one on the JVM
+    testImplementation("androidx.work:work-testing:2.9.0")
+    testImplementation("androidx.test:core:1.5.0")
+    testImplementation("org.robolectric:robolectric:4.14.1")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
     androidTestImplementation(platform("androidx.compose:compose-bom:2024.02.00"))
@@ -0,0 +1,22 @@
+package com.example.beautyapp
+
+import android.app.Application
+import com.example.beautyapp.data.ShadeCatalogCache
+import com.example.beautyapp.data.catalog.CatalogPrefetchWorker
+import com.example.beautyapp.network.HttpCache
+import com.example.beautyapp.network.NetworkModule
+
+// App-wide setup that has to happen before any screen or ViewModel runs
+class BeautyApplication : Application() {
+    override fun onCreate() {
+        super.onCreate()
+        // Shared on-disk HTTP cache used by every Retrofit client
+        HttpCache.install(this)
+        // Open connections to the Makeup and Weather hosts while the first screen is being built
+        NetworkModule.preconnect()
+        // Periodic catalog + image refresh on unmetered network (KEEP, so this is a no-op after the first launch)
+        CatalogPrefetchWorker.schedule(this)
+        // Load makeup.db shades + products in the background so the Shade Match tab opens ready
+        ShadeCatalogCache.warmUp(this)
+    }
+}
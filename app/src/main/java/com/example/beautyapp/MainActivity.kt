@@ -30,6 +30,7 @@ import androidx.lifecycle.viewmodel.compose.viewModel
 import androidx.navigation.compose.NavHost
 import androidx.navigation.compose.composable
 import androidx.navigation.compose.rememberNavController
+import androidx.paging.compose.collectAsLazyPagingItems
 import com.example.beautyapp.data.Product
 import com.example.beautyapp.data.ProductColor
 import com.example.beautyapp.data.Settings
@@ -166,6 +167,7 @@ fun BeautyApp(
 ) {
     // State management
     val productState by productViewModel.state.collectAsState()
+    val pagedProducts = productViewModel.pagedProducts.collectAsLazyPagingItems()
     var selectedProduct by remember { mutableStateOf<Product?>(null) }  // Currently viewed product
     var selectedTab by remember { mutableIntStateOf(0) }  // Active bottom nav tab
     var showLogoutDialog by remember { mutableStateOf(false) }  // Logout confirmation
@@ -218,7 +220,9 @@ fun BeautyApp(
             onAddToCart = { productId: Int, shade: ProductColor? ->
                 productViewModel.addToCart(productId, shade)
             },
-            onBack = { selectedProduct = null }
+            onBack = { selectedProduct = null },
+            findSimilarShades = { productId, shade -> productViewModel.findSimilarShades(shade, productId) },
+            onProductClick = { product -> selectedProduct = product }
         )
     } else {
         Scaffold(
@@ -259,6 +263,7 @@ fun BeautyApp(
                     // Tab 1: Products - Browse makeup products with filters
                     1 -> ProductsScreen(
                         products = productViewModel.getDisplayProducts(),
+                        pagedProducts = if (productState.pagedGrid) pagedProducts else null,
                         likedProducts = productState.likedProducts,
                         onToggleLike = { productId -> productViewModel.toggleLike(productId) },
                         onAddToCart = { productId -> productViewModel.addToCart(productId, null) },
@@ -269,9 +274,26 @@ fun BeautyApp(
                         selectedProductTypes = productState.selectedProductTypes,
                         onBrandToggle = { brand -> productViewModel.toggleBrandFilter(brand) },
                         onProductTypeToggle = { type -> productViewModel.toggleProductTypeFilter(type) },
+                        tags = productState.availableTags,
+                        selectedTags = productState.selectedTags,
+                        onTagToggle = { tag -> productViewModel.toggleTagFilter(tag) },
+                        facetCounts = productState.facetCounts,
+                        searchQuery = productState.searchQuery,
+                        onSearchQueryChange = { query -> productViewModel.onSearchQueryChange(query) },
+                        sortKey = productState.sortKey,
+                        onSortKeyChange = { key -> productViewModel.setSortKey(key) },
+                        priceBoundsCents = productState.priceBoundsCents,
+                        priceSign = productState.priceSign,
+                        minPriceCents = productState.minPriceCents,
+                        maxPriceCents = productState.maxPriceCents,
+                        onPriceRangeChange = { min, max -> productViewModel.setPriceRange(min, max) },
+                        minRating = productState.minRating,
+                        onMinRatingChange = { rating -> productViewModel.setMinRating(rating) },
                         onClearFilters = { productViewModel.clearFilters() },
                         hasActiveFilters = productViewModel.hasActiveFilters(),
-                        onProductClick = { product -> selectedProduct = product }
+                        onProductClick = { product -> selectedProduct = product },
+                        errorMessage = productState.loadError,
+                        onRetry = { productViewModel.fetchProducts(forceRefresh = true) }
                     )
 
                     // Tab 2: Shade Match - Find your perfect shade from 8 skin tones
@@ -284,6 +306,9 @@ fun BeautyApp(
                         onToggleLocalLike = { localId -> productViewModel.toggleLocalLike(localId) },
                         onAddToCart = { localProduct ->
                             productViewModel.addLocalProductToCart(localProduct)
+                        },
+                        onAddCatalogProductToCart = { productId, shade ->
+                            productViewModel.addToCart(productId, shade)
                         }
                     )
                     // Tab 3: Cart - View cart items with Store Finder feature
@@ -314,7 +339,8 @@ fun BeautyApp(
                         onAddToCart = { productId -> productViewModel.addToCart(productId, null) },
                         onProductClick = { product -> selectedProduct = product },
                         onLogout = { showLogoutDialog = true },
-                        viewModel = productViewModel
+                        viewModel = productViewModel,
+                        shadeProductViewModel = shadeProductViewModel
                     )
                 }
             }
@@ -4,21 +4,99 @@ import android.content.Context
 import androidx.room.Database
 import androidx.room.Room
 import androidx.room.RoomDatabase
+import androidx.room.migration.Migration
+import androidx.sqlite.db.SupportSQLiteDatabase
+import com.example.beautyapp.data.catalog.CachedProduct
+import com.example.beautyapp.data.catalog.CachedProductColor
+import com.example.beautyapp.data.catalog.CachedProductTag
+import com.example.beautyapp.data.catalog.CatalogDao
+import com.example.beautyapp.data.catalog.CatalogSearchRow
+import com.example.beautyapp.data.catalog.CatalogSyncState
+import com.example.beautyapp.data.catalog.ShadeMatch
+import com.example.beautyapp.data.catalog.ShadeMatchDao
+import com.example.beautyapp.data.catalog.ShadeMatchState
 
 @Database(
-    entities = [LikedProduct::class, Note::class],  //new - added Note::class to entities
-    version = 2,  //new - increment from 1 to 2 because we're adding a new table
-    exportSchema = false
+    entities = [
+        LikedProduct::class,
+        Note::class,  //new - added Note::class to entities
+        CachedProduct::class,  // offline copy of the Makeup API catalog
+        CachedProductColor::class,
+        CachedProductTag::class,
+        CatalogSyncState::class,
+        CatalogSearchRow::class,  // FTS4 index over the catalog
+        ShadeMatch::class,  // makeup.db shade -> closest catalog products
+        ShadeMatchState::class
+    ],
+    version = 3,  // 3 - catalog cache, catalog_search FTS and shade matches; schemas/ holds every version
+    exportSchema = true
 )
 abstract class AppDatabase : RoomDatabase() {
 
     abstract fun likedProductDao(): LikedProductDao
     abstract fun noteDao(): NoteDao  //new - provide access to NoteDao
+    abstract fun catalogDao(): CatalogDao
+    abstract fun shadeMatchDao(): ShadeMatchDao
 
     companion object {
         @Volatile
         private var INSTANCE: AppDatabase? = null
 
+        // Everything since version 2 (likes and notes) in one step: no build between 2 and this schema
+        // was ever released. The catalog tables start empty and are filled by the first sync, the
+        // shade matches right after it; likes and notes are kept.
+        internal val MIGRATION_2_3 = object : Migration(2, 3) {
+            override fun migrate(db: SupportSQLiteDatabase) {
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `catalog_products` (" +
+                        "`id` INTEGER NOT NULL, `position` INTEGER NOT NULL, `brand` TEXT, `name` TEXT, " +
+                        "`price` TEXT, `price_sign` TEXT, `currency` TEXT, `image_link` TEXT, " +
+                        "`product_link` TEXT, `website_link` TEXT, `description` TEXT, `rating` REAL, " +
+                        "`category` TEXT, `product_type` TEXT, `created_at` TEXT, `updated_at` TEXT, " +
+                        "`product_api_url` TEXT, `api_featured_image` TEXT, PRIMARY KEY(`id`))"
+                )
+                db.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_products_position` ON `catalog_products` (`position`)")
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `catalog_product_colors` (" +
+                        "`product_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, " +
+                        "`hex_value` TEXT, `colour_name` TEXT, PRIMARY KEY(`product_id`, `position`), " +
+                        "FOREIGN KEY(`product_id`) REFERENCES `catalog_products`(`id`) " +
+                        "ON UPDATE NO ACTION ON DELETE CASCADE )"
+                )
+                db.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_product_colors_product_id` ON `catalog_product_colors` (`product_id`)")
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `catalog_product_tags` (" +
+                        "`product_id` INTEGER NOT NULL, `position` INTEGER NOT NULL, `tag` TEXT NOT NULL, " +
+                        "PRIMARY KEY(`product_id`, `position`), " +
+                        "FOREIGN KEY(`product_id`) REFERENCES `catalog_products`(`id`) " +
+                        "ON UPDATE NO ACTION ON DELETE CASCADE )"
+                )
+                db.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_product_tags_product_id` ON `catalog_product_tags` (`product_id`)")
+                db.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_product_tags_tag` ON `catalog_product_tags` (`tag`)")
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `catalog_sync` (" +
+                        "`catalog` TEXT NOT NULL, `last_synced_at` INTEGER NOT NULL, `watermark` TEXT, " +
+                        "`validator` TEXT, PRIMARY KEY(`catalog`))"
+                )
+                db.execSQL(
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS `catalog_search` USING FTS4(" +
+                        "`name` TEXT, `brand` TEXT, `description` TEXT, `tags` TEXT, " +
+                        "tokenize=unicode61, prefix=`2,3`)"
+                )
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `shade_matches` (" +
+                        "`shade_id` INTEGER NOT NULL, `category` TEXT NOT NULL, `rank` INTEGER NOT NULL, " +
+                        "`product_id` INTEGER NOT NULL, `brand` TEXT, `name` TEXT, `image_link` TEXT, " +
+                        "`price` TEXT, `price_sign` TEXT, `hex_value` TEXT, `colour_name` TEXT, " +
+                        "`distance` REAL NOT NULL, PRIMARY KEY(`shade_id`, `category`, `rank`))"
+                )
+                db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `shade_match_state` (" +
+                        "`id` INTEGER NOT NULL, `fingerprint` TEXT NOT NULL, `computed_at` INTEGER NOT NULL, PRIMARY KEY(`id`))"
+                )
+            }
+        }
+
         fun getDatabase(context: Context): AppDatabase {
             return INSTANCE ?: synchronized(this) {
                 val instance = Room.databaseBuilder(
@@ -26,7 +104,8 @@ abstract class AppDatabase : RoomDatabase() {
                     AppDatabase::class.java,
                     "beauty_app_database"
                 )
-                    .fallbackToDestructiveMigration()  //new - handle database version upgrade (will delete old data but that's okay for development)
+                    .addMigrations(MIGRATION_2_3)
+                    .fallbackToDestructiveMigration()  // only reached from version 1 (before notes) and unreleased dev builds above 3
                     .build()
                 INSTANCE = instance
                 instance
@@ -13,7 +13,7 @@ import com.example.beautyapp.data.MakeupProduct
 // This is DIFFERENT from AppDatabase (which has CartItem, LikedProduct, Note)
 @Database(
     entities = [Shade::class, MakeupProduct::class],
-    version = 1,
+    version = 2,  // 2 - index on products.shade_id
     exportSchema = false
 )
 abstract class MakeupDatabase : RoomDatabase() {
@@ -33,6 +33,9 @@ abstract class MakeupDatabase : RoomDatabase() {
                     "makeup_database"
                 )
                     .createFromAsset("databases/makeup.db") // Pre-populated database from assets
+                    // makeup.db is read-only reference data, so a version bump just re-copies the asset
+                    // (nothing of the user's is lost). The fresh copy (user_version 0) goes through
+                    // Room's create path, which adds index_products_shade_id from the entity.
                     .fallbackToDestructiveMigration()
                     .build()
                 INSTANCE = instance
@@ -3,6 +3,7 @@ package com.example.beautyapp.data
 import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.ForeignKey
+import androidx.room.Index
 import androidx.room.PrimaryKey
 
 // ⭐ ADD THIS IMPORT! ⭐
@@ -19,7 +20,9 @@ import com.example.beautyapp.data.Shade
             childColumns = ["shade_id"],
             onDelete = ForeignKey.NO_ACTION
         )
-    ]
+    ],
+    // Every shade lookup filters on shade_id - without this each one is a full table scan
+    indices = [Index(value = ["shade_id"])]
 )
 data class MakeupProduct(
     @PrimaryKey
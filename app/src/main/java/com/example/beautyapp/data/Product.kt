@@ -1,43 +1,47 @@
 package com.example.beautyapp.data
 
-import com.google.gson.annotations.SerializedName
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
 
+// Generated Moshi adapters (ProductJsonAdapter / ProductColorJsonAdapter) - no reflection at parse time
+@JsonClass(generateAdapter = true)
 data class Product(
     val id: Int,
     val brand: String?,
     val name: String?,
     val price: String?,
-    @SerializedName("price_sign")
+    @Json(name = "price_sign")
     val priceSign: String?,
     val currency: String?,
-    @SerializedName("image_link")
+    @Json(name = "image_link")
     val imageLink: String?,
-    @SerializedName("product_link")
+    @Json(name = "product_link")
     val productLink: String?,
-    @SerializedName("website_link")
+    @Json(name = "website_link")
     val websiteLink: String?,
     val description: String?,
     val rating: Double?,
     val category: String?,
-    @SerializedName("product_type")
+    @Json(name = "product_type")
     val productType: String?,
-    @SerializedName("tag_list")
+    @Json(name = "tag_list")
     val tagList: List<String>?,
-    @SerializedName("created_at")
+    @Json(name = "created_at")
     val createdAt: String?,
-    @SerializedName("updated_at")
+    @Json(name = "updated_at")
     val updatedAt: String?,
-    @SerializedName("product_api_url")
+    @Json(name = "product_api_url")
     val productApiUrl: String?,
-    @SerializedName("api_featured_image")
+    @Json(name = "api_featured_image")
     val apiFeaturedImage: String?,
-    @SerializedName("product_colors")
+    @Json(name = "product_colors")
     val productColors: List<ProductColor>?
 )
 
+@JsonClass(generateAdapter = true)
 data class ProductColor(
-    @SerializedName("hex_value")
+    @Json(name = "hex_value")
     val hexValue: String?,
-    @SerializedName("colour_name")
+    @Json(name = "colour_name")
     val colourName: String?
 )
\ No newline at end of file
@@ -3,11 +3,24 @@ package com.example.beautyapp.data  // ← CORRECTED!
 import androidx.room.Dao
 import androidx.room.Query
 
+// suspend only - Room runs these on its own executor, so callers never block the main thread.
+// Lookups by shade use index_products_shade_id (declared on MakeupProduct).
 @Dao
 interface ProductDao {
     @Query("SELECT * FROM products WHERE shade_id = :shadeId")
-    fun getProductsForShade(shadeId: Int): List<MakeupProduct>
+    suspend fun getProductsForShade(shadeId: Int): List<MakeupProduct>
+
+    // Whole table, loaded once into ShadeCatalogCache
+    @Query("SELECT * FROM products")
+    suspend fun getAllProducts(): List<MakeupProduct>
+
+    // One query for many ids (e.g. the liked ones on the Profile tab) instead of one lookup each;
+    // SQLite allows 999 bind variables, so callers with more ids should chunk them
+    @Query("SELECT * FROM products WHERE product_id IN (:productIds)")
+    suspend fun getProductsByIds(productIds: List<Int>): List<MakeupProduct>
+
+    // Used by the background prefetch to warm the image cache for recommendations
+    @Query("SELECT image_url FROM products WHERE image_url IS NOT NULL AND image_url != ''")
+    suspend fun getAllImageUrls(): List<String>
+}
 
-    @Query("SELECT * FROM products WHERE product_id = :productId")
-    fun getProductById(productId: Int): MakeupProduct?
-}
\ No newline at end of file
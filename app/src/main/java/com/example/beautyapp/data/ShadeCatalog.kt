@@ -0,0 +1,59 @@
+package com.example.beautyapp.data
+
+import android.content.Context
+import android.util.Log
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+
+// Everything in makeup.db, grouped once: shade switching is a map lookup instead of a query.
+// Immutable, so every screen can hold on to the same instance.
+class ShadeCatalog(
+    val shades: List<Shade>,
+    val allProducts: List<MakeupProduct>
+) {
+    private val productsByShade: Map<Int, List<MakeupProduct>> = allProducts.groupBy { it.shadeId }
+
+    fun productsFor(shadeId: Int): List<MakeupProduct> = productsByShade[shadeId].orEmpty()
+
+    fun shadeById(shadeId: Int): Shade? = shades.firstOrNull { it.shadeId == shadeId }
+}
+
+// App-scoped holder for the ShadeCatalog. warmUp() starts the load at startup; get() waits for it,
+// catalog emits it once loaded. A failed load is retried by the next warmUp() / get().
+object ShadeCatalogCache {
+    private const val TAG = "ShadeCatalogCache"
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private var load: Deferred<ShadeCatalog>? = null
+
+    private val _catalog = MutableStateFlow<ShadeCatalog?>(null)
+    val catalog: StateFlow<ShadeCatalog?> = _catalog.asStateFlow()
+
+    fun warmUp(context: Context) {
+        start(context)
+    }
+
+    suspend fun get(context: Context): ShadeCatalog = start(context).await()
+
+    // isCancelled is also true for a load that failed
+    private fun start(context: Context): Deferred<ShadeCatalog> = synchronized(this) {
+        load?.takeUnless { it.isCancelled } ?: scope.async {
+            try {
+                val db = MakeupDatabase.getDatabase(context.applicationContext)
+                val catalog = ShadeCatalog(db.shadeDao().getAllShades(), db.productDao().getAllProducts())
+                Log.d(TAG, "Loaded ${catalog.shades.size} shades, ${catalog.allProducts.size} products")
+                _catalog.value = catalog
+                catalog
+            } catch (e: Exception) {
+                Log.e(TAG, "Failed to load makeup.db", e)
+                throw e
+            }
+        }.also { load = it }
+    }
+}
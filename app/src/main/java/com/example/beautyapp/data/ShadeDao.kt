@@ -3,11 +3,12 @@ package com.example.beautyapp.data  // ← CORRECTED!
 import androidx.room.Dao
 import androidx.room.Query
 
+// suspend only - Room runs these on its own executor, so callers never block the main thread
 @Dao
 interface ShadeDao {
     @Query("SELECT * FROM shades")
-    fun getAllShades(): List<Shade>
+    suspend fun getAllShades(): List<Shade>
 
     @Query("SELECT * FROM shades WHERE shade_id = :id")
-    fun getShadeById(id: Int): Shade?
-}
\ No newline at end of file
+    suspend fun getShadeById(id: Int): Shade?
+}
@@ -0,0 +1,140 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.room.ColumnInfo
+import androidx.room.Embedded
+import androidx.room.Entity
+import androidx.room.ForeignKey
+import androidx.room.Index
+import androidx.room.PrimaryKey
+import androidx.room.Relation
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+
+// On-disk copy of one Makeup API product so the catalog can be shown before the network answers.
+// Colors and tags live in child tables (see below) and are deleted together with their product.
+// Filtering happens in CatalogIndex, so only position is indexed (API-order reads, MAX(position) on sync).
+@Entity(
+    tableName = "catalog_products",
+    indices = [Index("position")]
+)
+data class CachedProduct(
+    @PrimaryKey val id: Int,
+    val position: Int,  // index in the API response, keeps the grid in the same order as the server
+    val brand: String?,
+    val name: String?,
+    val price: String?,
+    @ColumnInfo(name = "price_sign") val priceSign: String?,
+    val currency: String?,
+    @ColumnInfo(name = "image_link") val imageLink: String?,
+    @ColumnInfo(name = "product_link") val productLink: String?,
+    @ColumnInfo(name = "website_link") val websiteLink: String?,
+    val description: String?,
+    val rating: Double?,
+    val category: String?,
+    @ColumnInfo(name = "product_type") val productType: String?,
+    @ColumnInfo(name = "created_at") val createdAt: String?,
+    @ColumnInfo(name = "updated_at") val updatedAt: String?,
+    @ColumnInfo(name = "product_api_url") val productApiUrl: String?,
+    @ColumnInfo(name = "api_featured_image") val apiFeaturedImage: String?
+)
+
+@Entity(
+    tableName = "catalog_product_colors",
+    primaryKeys = ["product_id", "position"],
+    foreignKeys = [
+        ForeignKey(
+            entity = CachedProduct::class,
+            parentColumns = ["id"],
+            childColumns = ["product_id"],
+            onDelete = ForeignKey.CASCADE
+        )
+    ],
+    indices = [Index("product_id")]
+)
+data class CachedProductColor(
+    @ColumnInfo(name = "product_id") val productId: Int,
+    val position: Int,
+    @ColumnInfo(name = "hex_value") val hexValue: String?,
+    @ColumnInfo(name = "colour_name") val colourName: String?
+)
+
+@Entity(
+    tableName = "catalog_product_tags",
+    primaryKeys = ["product_id", "position"],
+    foreignKeys = [
+        ForeignKey(
+            entity = CachedProduct::class,
+            parentColumns = ["id"],
+            childColumns = ["product_id"],
+            onDelete = ForeignKey.CASCADE
+        )
+    ],
+    indices = [Index("product_id"), Index("tag")]
+)
+data class CachedProductTag(
+    @ColumnInfo(name = "product_id") val productId: Int,
+    val position: Int,
+    val tag: String
+)
+
+// Product row joined with its colors and tags - what the DAO hands back to the repository
+data class CachedProductWithDetails(
+    @Embedded val product: CachedProduct,
+    @Relation(parentColumn = "id", entityColumn = "product_id")
+    val colors: List<CachedProductColor>,
+    @Relation(parentColumn = "id", entityColumn = "product_id")
+    val tags: List<CachedProductTag>
+)
+
+fun CachedProductWithDetails.toProduct(): Product = Product(
+    id = product.id,
+    brand = product.brand,
+    name = product.name,
+    price = product.price,
+    priceSign = product.priceSign,
+    currency = product.currency,
+    imageLink = product.imageLink,
+    productLink = product.productLink,
+    websiteLink = product.websiteLink,
+    description = product.description,
+    rating = product.rating,
+    category = product.category,
+    productType = product.productType,
+    tagList = tags.sortedBy { it.position }.map { it.tag },
+    createdAt = product.createdAt,
+    updatedAt = product.updatedAt,
+    productApiUrl = product.productApiUrl,
+    apiFeaturedImage = product.apiFeaturedImage,
+    productColors = colors.sortedBy { it.position }.map { ProductColor(hexValue = it.hexValue, colourName = it.colourName) }
+)
+
+fun Product.toCachedProduct(position: Int): CachedProduct = CachedProduct(
+    id = id,
+    position = position,
+    brand = brand,
+    name = name,
+    price = price,
+    priceSign = priceSign,
+    currency = currency,
+    imageLink = imageLink,
+    productLink = productLink,
+    websiteLink = websiteLink,
+    description = description,
+    rating = rating,
+    category = category,
+    productType = productType,
+    createdAt = createdAt,
+    updatedAt = updatedAt,
+    productApiUrl = productApiUrl,
+    apiFeaturedImage = apiFeaturedImage
+)
+
+fun Product.toCachedColors(): List<CachedProductColor> =
+    productColors.orEmpty().mapIndexed { index, color ->
+        CachedProductColor(productId = id, position = index, hexValue = color.hexValue, colourName = color.colourName)
+    }
+
+fun Product.toCachedTags(): List<CachedProductTag> =
+    tagList.orEmpty().mapIndexed { index, tag ->
+        CachedProductTag(productId = id, position = index, tag = tag)
+    }
@@ -0,0 +1,135 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+// The catalog as the UI sees it: the product list plus the brand / type values offered as filters.
+// products may be a lazily decoded CatalogSnapshot list, so avoid walking it when the facets are already known.
+class Catalog private constructor(
+    val products: List<Product>,
+    val brands: List<String>,
+    val productTypes: List<String>,
+    carried: Carried?
+) {
+    constructor(products: List<Product>, brands: List<String>, productTypes: List<String>) :
+        this(products, brands, productTypes, null)
+
+    // Lookups taken over from the previous catalog by applyDelta(); anything null is built on first use
+    private class Carried(
+        val swatches: PackedSwatches?,
+        val index: CatalogIndex?,
+        val trigrams: TrigramIndex?,
+        val ranges: CatalogRanges?,
+        val sortOrders: CatalogSortOrders?,
+        val positionById: Map<Int, Int>?
+    )
+
+    val isEmpty: Boolean get() = products.isEmpty()
+
+    // Swatch colors as packed ARGB ints, parsed on first use by the color features
+    private val swatchesLazy = lazy { carried?.swatches ?: PackedSwatches.from(products) }
+    val swatches: PackedSwatches by swatchesLazy
+
+    // Swatches in CIELAB in a k-d tree, for "similar shades". Always rebuilt (it has to stay balanced),
+    // but from swatches, so after a delta sync it doesn't read the products again.
+    val swatchIndex: SwatchIndex by lazy { SwatchIndex.build(swatches) }
+
+    // Filter bitmaps - walks every product once, so build it off the main thread (buildLookups)
+    private val indexLazy = lazy { carried?.index ?: CatalogIndex.build(products) }
+    val index: CatalogIndex by indexLazy
+
+    // Typo-tolerant brand / name lookup, the fallback when full-text search finds little
+    private val trigramsLazy = lazy { carried?.trigrams ?: TrigramIndex.build(products) }
+    val trigrams: TrigramIndex by trigramsLazy
+
+    // Parsed prices (cents) and ratings in sorted arrays for the range filters
+    private val rangesLazy = lazy { carried?.ranges ?: CatalogRanges.build(products) }
+    val ranges: CatalogRanges by rangesLazy
+
+    // One permutation per sort key, so changing the sort never compares products
+    private val sortOrdersLazy = lazy { carried?.sortOrders ?: CatalogSortOrders.build(products, ranges) }
+    val sortOrders: CatalogSortOrders by sortOrdersLazy
+
+    // Tag filter values, only known once the index is built
+    val tags: List<String> get() = index.tags.keys.sorted()
+
+    // Product id -> position in products, for turning search hits (ids) into index positions
+    private val positionById: Map<Int, Int> by lazy {
+        carried?.positionById
+            ?: HashMap<Int, Int>(products.size * 2).apply { products.forEachIndexed { i, p -> put(p.id, i) } }
+    }
+
+    fun positionOf(id: Int): Int? = positionById[id]
+
+    // Closest swatches to argb, at most one per product (its best); excludeProductId skips e.g. the product on screen
+    fun nearestSwatches(argb: Int, k: Int, excludeProductId: Int? = null): List<SwatchMatch> {
+        val excluded = excludeProductId?.let { positionOf(it) } ?: -1
+        // Products often list near-identical swatches, so over-fetch before keeping one per product
+        return swatchIndex.nearest(argb, k * 4) { swatches.productOf(it) != excluded }
+            .distinctBy { swatches.productOf(it.swatch) }
+            .take(k)
+            .mapNotNull { neighbor ->
+                val position = swatches.productOf(neighbor.swatch)
+                val product = products[position]
+                val color = product.productColors?.getOrNull(neighbor.swatch - swatches.offsets[position])
+                color?.let { SwatchMatch(product, it, neighbor.distance) }
+            }
+    }
+
+    // Forces the lazy indexes and id lookup, so the caller decides which thread pays for them
+    fun buildLookups() {
+        index
+        trigrams
+        ranges
+        sortOrders
+        swatchIndex
+        positionById
+    }
+
+    // The catalog after a delta sync. products is the merged list (order kept, updated rows in place,
+    // new rows appended); lookups already built here are carried over, touching only changed products.
+    fun applyDelta(products: List<Product>, changedIds: Collection<Int>, deletedIds: Collection<Int>): Catalog {
+        val delta = CatalogDelta.of(this, products, changedIds, deletedIds)
+        val carriedIndex = index.applying(delta)
+        val carriedRanges = if (rangesLazy.isInitialized()) ranges.applying(delta) else null
+        val carriedIds = HashMap<Int, Int>(products.size * 2)
+        for ((id, old) in positionById) {
+            val position = delta.carried(old)
+            if (position >= 0) carriedIds[id] = position
+        }
+        for (position in delta.changed) carriedIds[products[position].id] = position
+
+        return Catalog(
+            products = products,
+            brands = carriedIndex.brands.keys.sorted(),
+            productTypes = carriedIndex.productTypes.keys.sorted(),
+            carried = Carried(
+                swatches = if (swatchesLazy.isInitialized()) swatches.applying(delta) else null,
+                index = carriedIndex,
+                trigrams = if (trigramsLazy.isInitialized()) trigrams.applying(delta) else null,
+                ranges = carriedRanges,
+                sortOrders = if (carriedRanges != null && sortOrdersLazy.isInitialized()) {
+                    sortOrders.applying(delta, carriedRanges)
+                } else {
+                    null
+                },
+                positionById = carriedIds
+            )
+        )
+    }
+
+    companion object {
+        val EMPTY = Catalog(emptyList(), emptyList(), emptyList())
+
+        fun of(products: List<Product>): Catalog = Catalog(
+            products = products,
+            brands = products.mapNotNull { it.brand }.distinct().sorted(),
+            productTypes = products.mapNotNull { it.productType }.distinct().sorted()
+        )
+
+        fun of(snapshot: CatalogSnapshot): Catalog = Catalog(
+            products = snapshot.products,
+            brands = snapshot.brands(),
+            productTypes = snapshot.productTypes()
+        )
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+/*
+ * CatalogCompactor.kt
+ * PURPOSE: Shrinks the in-memory catalog while it is being ingested, before it reaches the snapshot or the UI
+ * - Repeated strings (brand, price, price sign, product type, dates, tags, shade names) are interned,
+ *   so "maybelline" is one String no matter how many products carry it
+ * - Swatch hex codes are parsed once into a PackedColors per product (ARGB IntArray + names), the only
+ *   copy of the colors the catalog keeps
+ * - Fields no screen or index reads (currency, category, product / brand links, API url, featured
+ *   image) are dropped. Room is written from the parsed products before compaction, so it still
+ *   holds every field the API sent (see ProductRepository.refresh / CatalogSyncEngine)
+ * - Missing lists stay null, empty ones stay empty
+ * One compactor is used per download so interning spans every batch of that download.
+ */
+class CatalogCompactor {
+
+    private val strings = HashMap<String, String>()
+
+    val internedStrings: Int get() = strings.size
+
+    fun compact(product: Product): Product = Product(
+        id = product.id,
+        brand = intern(product.brand?.trim()),
+        name = product.name?.trim(),
+        price = intern(product.price),
+        priceSign = intern(product.priceSign),
+        currency = null,
+        imageLink = product.imageLink,
+        productLink = null,
+        websiteLink = null,
+        description = product.description?.trim(),
+        rating = product.rating,
+        category = null,
+        productType = intern(product.productType),
+        tagList = product.tagList?.map { intern(it)!! },
+        createdAt = intern(product.createdAt),
+        updatedAt = intern(product.updatedAt),
+        productApiUrl = null,
+        apiFeaturedImage = null,
+        productColors = product.productColors?.let { colors ->
+            if (colors.isEmpty()) colors else PackedColors.of(colors, ::intern)
+        }
+    )
+
+    fun compactAll(products: List<Product>): List<Product> = products.map { compact(it) }
+
+    private fun intern(value: String?): String? =
+        if (value == null) null else strings.getOrPut(value) { value }
+}
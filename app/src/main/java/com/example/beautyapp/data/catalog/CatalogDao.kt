@@ -0,0 +1,121 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+import androidx.room.Upsert
+
+data class ProductPosition(val id: Int, val position: Int)
+
+// Abstract class instead of interface so replaceCatalog() can run as a single @Transaction
+@Dao
+abstract class CatalogDao {
+
+    // Whole catalog in API order, with colors and tags attached
+    @Transaction
+    @Query("SELECT * FROM catalog_products ORDER BY position")
+    abstract suspend fun getCatalog(): List<CachedProductWithDetails>
+
+    // Full-text hits for a prepared MATCH expression (see CatalogSearch.toMatchQuery), ranked by the caller
+    @Query(
+        """SELECT catalog_search.rowid AS id, p.position AS position, matchinfo(catalog_search, 'pcx') AS match_info
+        FROM catalog_search JOIN catalog_products p ON p.id = catalog_search.rowid
+        WHERE catalog_search MATCH :matchQuery"""
+    )
+    abstract suspend fun search(matchQuery: String): List<SearchHit>
+
+    @Query("SELECT COUNT(*) FROM catalog_products")
+    abstract suspend fun countProducts(): Int
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract suspend fun insertProducts(products: List<CachedProduct>)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract suspend fun insertColors(colors: List<CachedProductColor>)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract suspend fun insertTags(tags: List<CachedProductTag>)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract suspend fun insertSearchRows(rows: List<CatalogSearchRow>)
+
+    @Upsert
+    protected abstract suspend fun upsertProducts(products: List<CachedProduct>)
+
+    // Child rows go away through ON DELETE CASCADE
+    @Query("DELETE FROM catalog_products")
+    protected abstract suspend fun deleteAllProducts()
+
+    // FTS tables have no foreign keys, so search rows are deleted by hand
+    @Query("DELETE FROM catalog_search")
+    protected abstract suspend fun deleteAllSearchRows()
+
+    @Query("DELETE FROM catalog_search WHERE rowid IN (:productIds)")
+    protected abstract suspend fun deleteSearchRows(productIds: List<Int>)
+
+    @Query("DELETE FROM catalog_products WHERE id IN (:ids)")
+    protected abstract suspend fun deleteProducts(ids: List<Int>)
+
+    @Query("DELETE FROM catalog_product_colors WHERE product_id IN (:productIds)")
+    protected abstract suspend fun deleteColorsFor(productIds: List<Int>)
+
+    @Query("DELETE FROM catalog_product_tags WHERE product_id IN (:productIds)")
+    protected abstract suspend fun deleteTagsFor(productIds: List<Int>)
+
+    @Query("SELECT id, position FROM catalog_products WHERE id IN (:ids)")
+    abstract suspend fun getPositions(ids: List<Int>): List<ProductPosition>
+
+    @Query("SELECT MAX(position) FROM catalog_products")
+    abstract suspend fun maxPosition(): Int?
+
+    @Query("SELECT * FROM catalog_sync WHERE catalog = :catalog")
+    abstract suspend fun getSyncState(catalog: String): CatalogSyncState?
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract suspend fun upsertSyncState(state: CatalogSyncState)
+
+    // Swap the stored catalog for a fresh download - readers see either the old or the new one, never half
+    @Transaction
+    open suspend fun replaceCatalog(
+        products: List<CachedProduct>,
+        colors: List<CachedProductColor>,
+        tags: List<CachedProductTag>,
+        searchRows: List<CatalogSearchRow>,
+        syncState: CatalogSyncState
+    ) {
+        deleteAllProducts()
+        deleteAllSearchRows()
+        insertProducts(products)
+        insertColors(colors)
+        insertTags(tags)
+        insertSearchRows(searchRows)
+        upsertSyncState(syncState)
+    }
+
+    // Apply one delta sync: drop deleted products, rewrite changed ones (with fresh colors / tags / search rows)
+    @Transaction
+    open suspend fun applyDelta(
+        products: List<CachedProduct>,
+        colors: List<CachedProductColor>,
+        tags: List<CachedProductTag>,
+        searchRows: List<CatalogSearchRow>,
+        deletedIds: List<Int>,
+        syncState: CatalogSyncState
+    ) {
+        deletedIds.chunked(CatalogSyncEngine.MAX_QUERY_IDS).forEach {
+            deleteProducts(it)
+            deleteSearchRows(it)
+        }
+        products.map { it.id }.chunked(CatalogSyncEngine.MAX_QUERY_IDS).forEach {
+            deleteColorsFor(it)
+            deleteTagsFor(it)
+        }
+        upsertProducts(products)
+        insertColors(colors)
+        insertTags(tags)
+        insertSearchRows(searchRows)
+        upsertSyncState(syncState)
+    }
+}
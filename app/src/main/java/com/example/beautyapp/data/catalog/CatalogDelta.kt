@@ -0,0 +1,83 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+/*
+ * CatalogDelta.kt
+ * PURPOSE: Describes how a delta sync moved catalog positions, so the indexes can be carried over
+ * instead of rebuilt from every product
+ * - A sync keeps the catalog order: deleted products drop out, updated ones stay where they were,
+ *   new ones are appended. Old -> new positions are therefore monotonic (remap, -1 = deleted)
+ * - changed holds the new positions whose product is new or updated; only those products are read
+ *   again, everything else is renumbered from the old index structures
+ */
+class CatalogDelta private constructor(
+    val products: List<Product>,  // the merged list, what the new catalog is built over
+    private val remap: IntArray,  // old position -> new position, -1 when deleted
+    private val origin: IntArray,  // new position -> old position, -1 when appended
+    val changed: IntArray,  // new positions of new / updated products, ascending
+    private val changedBits: Bitmap
+) {
+    val size: Int get() = products.size
+
+    // New position of an old one, or -1 when it was deleted or its product changed
+    fun carried(oldPosition: Int): Int {
+        val position = remap[oldPosition]
+        return if (position < 0 || changedBits[position]) -1 else position
+    }
+
+    // Old position of an unchanged product, -1 for new / updated ones
+    fun originOf(position: Int): Int = if (changedBits[position]) -1 else origin[position]
+
+    fun isChanged(position: Int): Boolean = changedBits[position]
+
+    // An ordered position list (e.g. a sort permutation) over the new catalog: carried positions keep
+    // their relative order, changed positions passing include are merged in by comparator.
+    // comparator must break ties by position, the way the full build orders them.
+    fun carryOrder(order: IntArray, comparator: Comparator<Int>, include: (Int) -> Boolean = { true }): IntArray {
+        val kept = IntArrayBuilder()
+        for (old in order) {
+            val position = carried(old)
+            if (position >= 0) kept.add(position)
+        }
+        val added = changed.filter(include).sortedWith(comparator)
+        val keptArray = kept.toArray()
+        val result = IntArray(keptArray.size + added.size)
+        var i = 0
+        var j = 0
+        var n = 0
+        while (i < keptArray.size && j < added.size) {
+            result[n++] = if (comparator.compare(keptArray[i], added[j]) <= 0) keptArray[i++] else added[j++]
+        }
+        while (i < keptArray.size) result[n++] = keptArray[i++]
+        while (j < added.size) result[n++] = added[j++]
+        return result
+    }
+
+    companion object {
+        // previous: catalog before the sync. products: merged list (see CatalogSyncEngine).
+        fun of(previous: Catalog, products: List<Product>, changedIds: Collection<Int>, deletedIds: Collection<Int>): CatalogDelta {
+            val oldSize = previous.products.size
+            val deleted = Bitmap(oldSize).apply { deletedIds.forEach { id -> previous.positionOf(id)?.let { set(it) } } }
+
+            val remap = IntArray(oldSize)
+            val origin = IntArray(products.size) { -1 }
+            var removed = 0
+            for (old in 0 until oldSize) {
+                if (deleted[old]) {
+                    remap[old] = -1
+                    removed++
+                } else {
+                    remap[old] = old - removed
+                    origin[old - removed] = old
+                }
+            }
+
+            // Updated products keep their (renumbered) position, new ones are everything after the carried rows
+            val changedBits = Bitmap(products.size)
+            changedIds.forEach { id -> previous.positionOf(id)?.let { old -> if (remap[old] >= 0) changedBits.set(remap[old]) } }
+            for (position in oldSize - removed until products.size) changedBits.set(position)
+            return CatalogDelta(products, remap, origin, changedBits.toPositions(), changedBits)
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.beautyapp.data.catalog
+
+import android.util.Log
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import java.util.IdentityHashMap
+
+/*
+ * CatalogHeapReport.kt
+ * PURPOSE: Rough retained-heap estimate of a List<Product>, used to compare the raw download
+ * with the compacted catalog. Objects are counted once by identity, so shared (interned)
+ * strings and colors only cost their first reference. Sizes assume a 32-bit-reference ART heap
+ * (12-byte headers, 8-byte alignment) - good for comparisons, not exact numbers.
+ * Enable with: adb shell setprop log.tag.CatalogHeapReport DEBUG
+ */
+object CatalogHeapReport {
+    private const val TAG = "CatalogHeapReport"
+
+    private const val HEADER = 12
+    private const val REF = 4
+    private const val PRODUCT_FIELDS = 19
+
+    val isEnabled: Boolean get() = Log.isLoggable(TAG, Log.DEBUG)
+
+    fun estimateBytes(products: List<Product>): Long {
+        val seen = IdentityHashMap<Any, Unit>()
+        var total = align(HEADER + 8L) + align(16L + REF * products.size.toLong())  // ArrayList + backing array
+
+        fun string(value: String?) {
+            if (value == null || seen.put(value, Unit) != null) return
+            val latin1 = value.all { it.code < 0x100 }
+            total += align(HEADER + 8L) + align(HEADER + 4L + value.length * (if (latin1) 1L else 2L))
+        }
+
+        fun list(value: List<*>?) {
+            if (value == null || seen.put(value, Unit) != null) return
+            total += align(HEADER + 8L) + align(16L + REF * value.size.toLong())
+        }
+
+        for (product in products) {
+            total += align(HEADER + 4L + REF * (PRODUCT_FIELDS - 1L))
+            if (product.rating != null) total += align(HEADER + 8L)  // boxed Double
+            listOf(
+                product.brand, product.name, product.price, product.priceSign, product.currency,
+                product.imageLink, product.productLink, product.websiteLink, product.description,
+                product.category, product.productType, product.createdAt, product.updatedAt,
+                product.productApiUrl, product.apiFeaturedImage
+            ).forEach { string(it) }
+            list(product.tagList)
+            product.tagList?.forEach { string(it) }
+            when (val colors = product.productColors) {
+                // Object + ARGB IntArray + names array; ProductColors are only built when read
+                is PackedColors -> if (seen.put(colors, Unit) == null) {
+                    total += align(HEADER + 2L * REF) + 2 * align(16L + 4L * colors.size)
+                    colors.names.forEach { string(it) }
+                }
+                else -> {
+                    list(colors)
+                    colors?.forEach { color: ProductColor ->
+                        if (seen.put(color, Unit) == null) {
+                            total += align(HEADER + 2L * REF)
+                            string(color.hexValue)
+                            string(color.colourName)
+                        }
+                    }
+                }
+            }
+        }
+        return total
+    }
+
+    // raw = the products as parsed (every field, fresh strings), compact = what the catalog keeps
+    fun log(raw: List<Product>, compact: List<Product>, internedStrings: Int) {
+        val before = estimateBytes(raw)
+        val after = estimateBytes(compact)
+        Log.d(
+            TAG,
+            "Catalog of ${compact.size} products: ~${before / 1024} KB raw -> ~${after / 1024} KB compacted " +
+                "(${100 - after * 100 / before.coerceAtLeast(1)}% smaller, $internedStrings distinct strings)"
+        )
+    }
+
+    private fun align(bytes: Long): Long = (bytes + 7) and 7L.inv()
+}
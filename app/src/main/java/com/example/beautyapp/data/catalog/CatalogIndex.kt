@@ -0,0 +1,177 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+/*
+ * CatalogIndex.kt
+ * PURPOSE: Inverted index over the catalog for the brand / product type / tag filters
+ * - One Bitmap per facet value, bit i set when products[i] has that value; built in one pass
+ *   when a complete catalog is published
+ * - A selection is OR within a facet (any of the chosen brands) and AND across facets, so a
+ *   toggle costs a few word-wise operations over size / 64 longs instead of a scan with set lookups
+ * - match() returns catalog positions in API order, ready to page over
+ * - counts() gives every facet value's hit count under the *other* facets' selections: one
+ *   "rest of the selection" bitmap per facet, then an AND + popcount per value, no list re-filtering
+ */
+class CatalogIndex private constructor(
+    val size: Int,
+    val brands: Map<String, Bitmap>,
+    val productTypes: Map<String, Bitmap>,
+    val tags: Map<String, Bitmap>
+) {
+
+    // Positions matching the selection, or null when nothing is selected (= the whole catalog)
+    fun match(
+        selectedBrands: Set<String>,
+        selectedProductTypes: Set<String>,
+        selectedTags: Set<String>
+    ): IntArray? = matchBitmap(selectedBrands, selectedProductTypes, selectedTags)?.toPositions()
+
+    fun matchBitmap(
+        selectedBrands: Set<String>,
+        selectedProductTypes: Set<String>,
+        selectedTags: Set<String>
+    ): Bitmap? {
+        var result: Bitmap? = null
+        for ((index, selected) in listOf(brands to selectedBrands, productTypes to selectedProductTypes, tags to selectedTags)) {
+            if (selected.isEmpty()) continue
+            val facet = Bitmap(size)
+            selected.forEach { value -> index[value]?.let { facet.or(it) } }
+            result = result?.apply { and(facet) } ?: facet
+        }
+        return result
+    }
+
+    // Per facet value: how many products it would show if toggled on next to the other facets' selections
+    data class FacetCounts(
+        val brands: Map<String, Int> = emptyMap(),
+        val productTypes: Map<String, Int> = emptyMap(),
+        val tags: Map<String, Int> = emptyMap()
+    )
+
+    // within narrows every count further (e.g. to the current search results)
+    fun counts(
+        selectedBrands: Set<String>,
+        selectedProductTypes: Set<String>,
+        selectedTags: Set<String>,
+        within: Bitmap? = null
+    ): FacetCounts = FacetCounts(
+        brands = countFacet(brands, restricted(matchBitmap(emptySet(), selectedProductTypes, selectedTags), within)),
+        productTypes = countFacet(productTypes, restricted(matchBitmap(selectedBrands, emptySet(), selectedTags), within)),
+        tags = countFacet(tags, restricted(matchBitmap(selectedBrands, selectedProductTypes, emptySet()), within))
+    )
+
+    private fun restricted(rest: Bitmap?, within: Bitmap?): Bitmap? = when {
+        within == null -> rest
+        rest == null -> within
+        else -> rest.apply { and(within) }
+    }
+
+    private fun countFacet(facet: Map<String, Bitmap>, rest: Bitmap?): Map<String, Int> {
+        val counts = HashMap<String, Int>(facet.size * 2)
+        for ((value, bitmap) in facet) {
+            counts[value] = if (rest == null) bitmap.cardinality() else bitmap.andCardinality(rest)
+        }
+        return counts
+    }
+
+    // Same index over the catalog after a delta sync: existing bits are renumbered, only changed products are read
+    fun applying(delta: CatalogDelta): CatalogIndex {
+        val size = delta.size
+        val brands = carry(brands, delta)
+        val productTypes = carry(productTypes, delta)
+        val tags = carry(tags, delta)
+        for (position in delta.changed) add(delta.products[position], position, size, brands, productTypes, tags)
+        // A value whose last product was deleted or changed away is no longer offered as a filter
+        return CatalogIndex(
+            size,
+            brands.filterValues { it.cardinality() > 0 },
+            productTypes.filterValues { it.cardinality() > 0 },
+            tags.filterValues { it.cardinality() > 0 }
+        )
+    }
+
+    private fun carry(facet: Map<String, Bitmap>, delta: CatalogDelta): HashMap<String, Bitmap> {
+        val result = HashMap<String, Bitmap>(facet.size * 2)
+        for ((value, bitmap) in facet) {
+            val moved = Bitmap(delta.size)
+            for (old in bitmap.toPositions()) {
+                val position = delta.carried(old)
+                if (position >= 0) moved.set(position)
+            }
+            result[value] = moved
+        }
+        return result
+    }
+
+    companion object {
+        val EMPTY = CatalogIndex(0, emptyMap(), emptyMap(), emptyMap())
+
+        fun build(products: List<Product>): CatalogIndex {
+            val size = products.size
+            val brands = HashMap<String, Bitmap>()
+            val productTypes = HashMap<String, Bitmap>()
+            val tags = HashMap<String, Bitmap>()
+            products.forEachIndexed { position, product -> add(product, position, size, brands, productTypes, tags) }
+            return CatalogIndex(size, brands, productTypes, tags)
+        }
+
+        private fun add(
+            product: Product,
+            position: Int,
+            size: Int,
+            brands: MutableMap<String, Bitmap>,
+            productTypes: MutableMap<String, Bitmap>,
+            tags: MutableMap<String, Bitmap>
+        ) {
+            product.brand?.let { brands.getOrPut(it) { Bitmap(size) }.set(position) }
+            product.productType?.let { productTypes.getOrPut(it) { Bitmap(size) }.set(position) }
+            product.tagList?.forEach { tag ->
+                if (tag.isNotBlank()) tags.getOrPut(tag) { Bitmap(size) }.set(position)
+            }
+        }
+
+        fun bitmapOf(size: Int, positions: IntArray): Bitmap = Bitmap(size).apply { positions.forEach { set(it) } }
+    }
+}
+
+// Fixed-size bitmap over catalog positions, 64 products per word
+class Bitmap(val size: Int) {
+    private val words = LongArray((size + 63) ushr 6)
+
+    fun set(position: Int) {
+        words[position ushr 6] = words[position ushr 6] or (1L shl position)
+    }
+
+    operator fun get(position: Int): Boolean = words[position ushr 6] and (1L shl position) != 0L
+
+    fun or(other: Bitmap) {
+        for (i in words.indices) words[i] = words[i] or other.words[i]
+    }
+
+    fun and(other: Bitmap) {
+        for (i in words.indices) words[i] = words[i] and other.words[i]
+    }
+
+    fun cardinality(): Int = words.sumOf { java.lang.Long.bitCount(it) }
+
+    // |this AND other| without allocating the intersection
+    fun andCardinality(other: Bitmap): Int {
+        var count = 0
+        for (i in words.indices) count += java.lang.Long.bitCount(words[i] and other.words[i])
+        return count
+    }
+
+    fun toPositions(): IntArray {
+        val positions = IntArray(cardinality())
+        var n = 0
+        for (i in words.indices) {
+            var word = words[i]
+            while (word != 0L) {
+                positions[n++] = (i shl 6) + java.lang.Long.numberOfTrailingZeros(word)
+                word = word and (word - 1)
+            }
+        }
+        return positions
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.paging.Pager
+import androidx.paging.PagingConfig
+import androidx.paging.PagingData
+import androidx.paging.PagingSource
+import androidx.paging.PagingState
+import com.example.beautyapp.data.Product
+import kotlinx.coroutines.flow.Flow
+
+// Pages the in-memory catalog for the Products grid. positions come from CatalogIndex.match()
+// (null = whole catalog); products may be snapshot-backed, so only the rows on a loaded page are decoded.
+// This replaced the Room PagingSource over catalog_products: filters are answered by the bitmap index,
+// which needs every product in memory to build anyway, and a page is then a slice of positions.
+// Heap use follows the catalog size (decoded rows are kept), not the page window.
+class CatalogPagingSource(
+    private val products: List<Product>,
+    private val positions: IntArray?
+) : PagingSource<Int, Product>() {
+
+    private val count = positions?.size ?: products.size
+
+    override suspend fun load(params: LoadParams<Int>): LoadResult<Int, Product> {
+        val start = when (params) {
+            // Prepend asks for the loadSize items *before* the key
+            is LoadParams.Prepend -> (params.key - params.loadSize).coerceAtLeast(0)
+            is LoadParams.Append -> params.key.coerceIn(0, count)
+            // A refresh key from a longer list (before a filter narrowed it) still gets the last full page
+            is LoadParams.Refresh -> (params.key ?: 0).coerceIn(0, (count - params.loadSize).coerceAtLeast(0))
+        }
+        val end = when (params) {
+            is LoadParams.Prepend -> params.key
+            else -> (start + params.loadSize).coerceAtMost(count)
+        }
+        val page = (start until end).map { i -> products[positions?.get(i) ?: i] }
+        return LoadResult.Page(
+            data = page,
+            prevKey = if (start == 0) null else start,
+            nextKey = if (end >= count) null else end,
+            itemsBefore = start,
+            itemsAfter = count - end
+        )
+    }
+
+    override fun getRefreshKey(state: PagingState<Int, Product>): Int? =
+        state.anchorPosition?.let { (it - state.config.initialLoadSize / 2).coerceAtLeast(0) }
+
+    // The list never changes under a source (a new catalog or selection makes a new one), so jumping is safe
+    override val jumpingSupported: Boolean get() = true
+
+    companion object {
+        // Two-column grid: a page is 10 rows, loading starts 6 rows before the end, the first load
+        // covers ~2 screens. Placeholders keep the scrollbar stable and maxSize bounds memory.
+        private const val PAGE_SIZE = 20
+        private const val PREFETCH_DISTANCE = 12
+        private const val INITIAL_LOAD_SIZE = 40
+        private const val MAX_LOADED_ITEMS = 200
+
+        fun pager(products: List<Product>, positions: IntArray?): Flow<PagingData<Product>> =
+            Pager(
+                config = PagingConfig(
+                    pageSize = PAGE_SIZE,
+                    prefetchDistance = PREFETCH_DISTANCE,
+                    initialLoadSize = INITIAL_LOAD_SIZE,
+                    enablePlaceholders = true,
+                    maxSize = MAX_LOADED_ITEMS,
+                    jumpThreshold = PAGE_SIZE * 3
+                )
+            ) { CatalogPagingSource(products, positions) }.flow
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.beautyapp.data.catalog
+
+import android.content.Context
+import android.net.TrafficStats
+import android.os.Process
+import android.os.SystemClock
+import android.util.Log
+import androidx.work.Constraints
+import androidx.work.CoroutineWorker
+import androidx.work.ExistingPeriodicWorkPolicy
+import androidx.work.ExistingWorkPolicy
+import androidx.work.NetworkType
+import androidx.work.OneTimeWorkRequest
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.PeriodicWorkRequest
+import androidx.work.PeriodicWorkRequestBuilder
+import androidx.work.WorkManager
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import coil.imageLoader
+import coil.request.CachePolicy
+import coil.request.ImageRequest
+import coil.request.SuccessResult
+import com.example.beautyapp.data.MakeupDatabase
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import java.util.concurrent.TimeUnit
+
+/*
+ * CatalogPrefetchWorker.kt
+ * PURPOSE: Keeps the catalog and the first screens' images warm while the app isn't open
+ * - Refreshes the catalog the same way the Products tab does (full download when nothing is
+ *   cached, delta sync otherwise), skipped while the cached copy is still fresh unless forced
+ * - Pulls the images of the first grid pages and the makeup.db recommendation images into
+ *   Coil's disk cache (memory cache untouched), so opening those screens needs no network
+ * - Recomputes the Shade Match tab's catalog matches when the catalog changed
+ * - Reports bytes received and time spent in its output data and in the log
+ * schedule() sets up the periodic run (unmetered network, battery not low);
+ * requestRefresh() queues a one-off run that waits for any connection.
+ */
+class CatalogPrefetchWorker(
+    context: Context,
+    params: WorkerParameters
+) : CoroutineWorker(context, params) {
+
+    override suspend fun doWork(): Result {
+        val startedAt = SystemClock.elapsedRealtime()
+        val rxBefore = TrafficStats.getUidRxBytes(Process.myUid())
+        val force = inputData.getBoolean(KEY_FORCE, false)
+
+        return try {
+            val repository = ProductRepository.create(applicationContext)
+            val cached = repository.loadCached()
+            val catalog = when (planFor(force, hasCache = !cached.isEmpty, isStale = repository.isStale())) {
+                Plan.USE_CACHED -> cached
+                Plan.FULL_DOWNLOAD -> repository.refresh()
+                Plan.SYNC -> repository.sync(cached) ?: cached
+            }
+            // No-op unless the catalog (or makeup.db) changed since the matches were computed
+            ShadeMatchRepository.create(applicationContext).refreshIfNeeded(catalog)
+
+            val gridUrls = catalog.products.asSequence()
+                .mapNotNull { it.imageLink }
+                .take(GRID_PREFETCH_COUNT)
+                .toList()
+            val recommendationUrls = MakeupDatabase.getDatabase(applicationContext).productDao().getAllImageUrls()
+            val warmed = warmImages((gridUrls + recommendationUrls).distinct())
+
+            val elapsed = SystemClock.elapsedRealtime() - startedAt
+            val rxAfter = TrafficStats.getUidRxBytes(Process.myUid())
+            // UNSUPPORTED (-1) on some devices - report 0 rather than a negative count
+            val bytes = if (rxBefore >= 0 && rxAfter >= rxBefore) rxAfter - rxBefore else 0L
+            Log.d(TAG, "Prefetch done: ${catalog.products.size} products, $warmed images, $bytes bytes in ${elapsed}ms")
+            Result.success(
+                workDataOf(
+                    KEY_BYTES_FETCHED to bytes,
+                    KEY_ELAPSED_MILLIS to elapsed,
+                    KEY_IMAGES_WARMED to warmed
+                )
+            )
+        } catch (e: Exception) {
+            Log.e(TAG, "Prefetch failed (attempt ${runAttemptCount + 1})", e)
+            if (runAttemptCount < MAX_RETRIES) Result.retry() else Result.failure()
+        }
+    }
+
+    // Returns how many images ended up in the disk cache (already cached ones count too)
+    private suspend fun warmImages(urls: List<String>): Int = coroutineScope {
+        val imageLoader = applicationContext.imageLoader
+        val permits = Semaphore(IMAGE_PARALLELISM)
+        urls.map { url ->
+            async {
+                permits.withPermit {
+                    val request = ImageRequest.Builder(applicationContext)
+                        .data(url)
+                        .memoryCachePolicy(CachePolicy.DISABLED)
+                        .diskCachePolicy(CachePolicy.ENABLED)
+                        .build()
+                    imageLoader.execute(request) is SuccessResult
+                }
+            }
+        }.awaitAll().count { it }
+    }
+
+    // What a run does with the catalog
+    internal enum class Plan { USE_CACHED, FULL_DOWNLOAD, SYNC }
+
+    companion object {
+        private const val TAG = "CatalogPrefetch"
+        internal const val PERIODIC_WORK = "catalog_prefetch_periodic"
+        internal const val ONE_OFF_WORK = "catalog_prefetch_now"
+
+        const val KEY_FORCE = "force"
+        const val KEY_BYTES_FETCHED = "bytes_fetched"
+        const val KEY_ELAPSED_MILLIS = "elapsed_millis"
+        const val KEY_IMAGES_WARMED = "images_warmed"
+
+        // Two columns, roughly three screens of the Products grid
+        private const val GRID_PREFETCH_COUNT = 36
+        private const val IMAGE_PARALLELISM = 4
+        private const val MAX_RETRIES = 3
+
+        private const val PERIOD_HOURS = 12L
+
+        // A fresh cache is left alone unless the run was forced; nothing cached means a full download
+        internal fun planFor(force: Boolean, hasCache: Boolean, isStale: Boolean): Plan = when {
+            !hasCache -> Plan.FULL_DOWNLOAD
+            force || isStale -> Plan.SYNC
+            else -> Plan.USE_CACHED
+        }
+
+        // KEEP: scheduling again on every launch doesn't reset the period
+        fun schedule(context: Context) {
+            WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(PERIODIC_WORK, ExistingPeriodicWorkPolicy.KEEP, periodicRequest())
+        }
+
+        internal fun periodicRequest(): PeriodicWorkRequest {
+            val constraints = Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .build()
+            return PeriodicWorkRequestBuilder<CatalogPrefetchWorker>(PERIOD_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build()
+        }
+
+        // On demand, e.g. after a foreground refresh failed - runs as soon as there is a connection.
+        // KEEP: a refresh that is already waiting for the network covers this request too.
+        fun requestRefresh(context: Context, force: Boolean = true) {
+            WorkManager.getInstance(context)
+                .enqueueUniqueWork(ONE_OFF_WORK, ExistingWorkPolicy.KEEP, refreshRequest(force))
+        }
+
+        internal fun refreshRequest(force: Boolean): OneTimeWorkRequest =
+            OneTimeWorkRequestBuilder<CatalogPrefetchWorker>()
+                .setConstraints(
+                    Constraints.Builder().setRequiredNetworkType(NetworkType.CONNECTED).build()
+                )
+                .setInputData(workDataOf(KEY_FORCE to force))
+                .build()
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+// Everything the user has asked the Products grid for. Immutable, so a snapshot of it can be
+// evaluated on a background thread while the UI keeps changing the live selection.
+data class CatalogQuery(
+    val brands: Set<String> = emptySet(),
+    val productTypes: Set<String> = emptySet(),
+    val tags: Set<String> = emptySet(),
+    val text: String = "",
+    val sort: SortKey = SortKey.FEATURED,
+    val minPriceCents: Int? = null,
+    val maxPriceCents: Int? = null,
+    val minRating: Double? = null
+) {
+    val hasRanges: Boolean get() = minPriceCents != null || maxPriceCents != null || minRating != null
+    val hasFilters: Boolean get() = brands.isNotEmpty() || productTypes.isNotEmpty() || tags.isNotEmpty() || hasRanges
+    val isEmpty: Boolean get() = !hasFilters && text.isBlank()
+
+    // Linear check for lists that aren't indexed (streamed batches, server slices). The text part
+    // is a plain contains() stand-in for the FTS search, which only exists for the full catalog.
+    fun matches(product: Product): Boolean {
+        if (brands.isNotEmpty() && product.brand !in brands) return false
+        if (productTypes.isNotEmpty() && product.productType !in productTypes) return false
+        if (tags.isNotEmpty() && product.tagList.orEmpty().none { it in tags }) return false
+        if (minPriceCents != null || maxPriceCents != null) {
+            val cents = CatalogRanges.parsePriceCents(product.price)
+            if (cents < 0) return false
+            if (minPriceCents != null && cents < minPriceCents) return false
+            if (maxPriceCents != null && cents > maxPriceCents) return false
+        }
+        if (minRating != null && (product.rating ?: return false) < minRating) return false
+        val needle = text.trim()
+        if (needle.isEmpty()) return true
+        return product.name?.contains(needle, ignoreCase = true) == true ||
+            product.brand?.contains(needle, ignoreCase = true) == true
+    }
+}
+
+// What one evaluation of a CatalogQuery produced
+sealed class CatalogQueryResult {
+    // Full catalog: positions to page over (null = all, in catalog order) plus facet counts
+    class Indexed(
+        val products: List<Product>,
+        val positions: IntArray?,
+        val facetCounts: CatalogIndex.FacetCounts
+    ) : CatalogQueryResult()
+
+    // Partial catalog or server slices: an already filtered list
+    class Listed(val products: List<Product>) : CatalogQueryResult()
+
+    companion object {
+        // Bitmaps for the filters, precomputed permutations for the sort. searchHits (ranked product ids,
+        // null = not searching) keep their relevance order unless the user picked another sort.
+        fun indexed(catalog: Catalog, query: CatalogQuery, searchHits: IntArray?): Indexed {
+            val index = catalog.index
+            val rangeBitmap = rangeBitmap(catalog.ranges, query)
+            val selection = index.matchBitmap(query.brands, query.productTypes, query.tags)
+                ?.apply { rangeBitmap?.let { and(it) } }
+                ?: rangeBitmap
+            val hitPositions = searchHits?.let { ids -> ids.asIterable().mapNotNull { catalog.positionOf(it) }.toIntArray() }
+            val searchBitmap = hitPositions?.let { CatalogIndex.bitmapOf(index.size, it) }
+            // Facet counts follow the search and the range filters, not just the other facets
+            val countsWithin = when {
+                searchBitmap == null -> rangeBitmap
+                rangeBitmap == null -> searchBitmap
+                else -> CatalogIndex.bitmapOf(index.size, hitPositions).apply { and(rangeBitmap) }
+            }
+            val positions = when {
+                hitPositions == null -> catalog.sortOrders.sorted(query.sort, selection)
+                query.sort == SortKey.FEATURED ->
+                    hitPositions.filter { selection == null || selection[it] }.toIntArray()
+                else -> {
+                    val matches = CatalogIndex.bitmapOf(index.size, hitPositions).apply { selection?.let { and(it) } }
+                    catalog.sortOrders.sorted(query.sort, matches)
+                }
+            }
+            return Indexed(
+                products = catalog.products,
+                positions = positions,
+                facetCounts = index.counts(query.brands, query.productTypes, query.tags, countsWithin)
+            )
+        }
+
+        // Two binary searches per active range, ANDed together; null when no range is set
+        private fun rangeBitmap(ranges: CatalogRanges, query: CatalogQuery): Bitmap? {
+            var result: Bitmap? = null
+            if (query.minPriceCents != null || query.maxPriceCents != null) {
+                result = ranges.priceBitmap(query.minPriceCents, query.maxPriceCents)
+            }
+            query.minRating?.let { min ->
+                val rating = ranges.ratingBitmap(min)
+                result = result?.apply { and(rating) } ?: rating
+            }
+            return result
+        }
+
+        // No query -> the list as is (it may be a lazily decoded snapshot, don't walk it)
+        fun listed(products: List<Product>, query: CatalogQuery): Listed {
+            val filtered = if (query.isEmpty) products else products.filter(query::matches)
+            return Listed(query.sort.comparator?.let { filtered.sortedWith(it) } ?: filtered)
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.beautyapp.data.catalog
+
+/*
+ * CatalogQueryPlanner.kt
+ * PURPOSE: Decides where a brand / product type filter is evaluated
+ * - LOCAL: the full catalog is in memory, filter it there (no network)
+ * - REMOTE: the full catalog isn't available yet (cold cache, download still running), so ask the
+ *   Makeup API for just the matching slice(s) with its brand= / product_type= parameters.
+ *   The API takes one value per parameter, so a selection becomes one request per
+ *   brand x type combination - past MAX_REMOTE_SLICES it is cheaper to wait for the full list.
+ */
+object CatalogQueryPlanner {
+
+    const val MAX_REMOTE_SLICES = 4
+
+    // One server-side filtered request; null means "don't filter on this parameter"
+    data class SliceKey(val brand: String?, val productType: String?)
+
+    sealed class Plan {
+        object Local : Plan()
+        data class Remote(val slices: List<SliceKey>) : Plan()
+    }
+
+    fun plan(fullCatalogAvailable: Boolean, brands: Set<String>, productTypes: Set<String>): Plan {
+        if (fullCatalogAvailable) return Plan.Local
+        if (brands.isEmpty() && productTypes.isEmpty()) return Plan.Local
+
+        val brandValues: List<String?> = if (brands.isEmpty()) listOf(null) else brands.sorted()
+        val typeValues: List<String?> = if (productTypes.isEmpty()) listOf(null) else productTypes.sorted()
+        if (brandValues.size * typeValues.size > MAX_REMOTE_SLICES) return Plan.Local
+
+        return Plan.Remote(brandValues.flatMap { brand -> typeValues.map { type -> SliceKey(brand, type) } })
+    }
+}
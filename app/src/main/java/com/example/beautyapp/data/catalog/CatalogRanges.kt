@@ -0,0 +1,136 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+/*
+ * CatalogRanges.kt
+ * PURPOSE: Price and rating range filters without scanning the catalog
+ * - Prices are parsed once per catalog to fixed-point cents (Product.price is a String), ratings
+ *   copied into a DoubleArray; -1 / NaN mark a missing value
+ * - Products that have a value are kept in ascending order as parallel arrays (value, position),
+ *   so a range is two binary searches plus setting the bits of the positions in between
+ * - Products without a price / rating never match an active range filter
+ */
+class CatalogRanges private constructor(
+    private val size: Int,
+    val priceCents: IntArray,
+    val ratings: DoubleArray,
+    private val sortedCents: IntArray,
+    private val centsPositions: IntArray,
+    private val sortedRatings: DoubleArray,
+    private val ratingPositions: IntArray
+) {
+    // Lowest / highest known price, for the slider bounds; null when no product has a price
+    val priceBoundsCents: IntRange?
+        get() = if (sortedCents.isEmpty()) null else sortedCents.first()..sortedCents.last()
+
+    // Products priced within [minCents, maxCents]; either bound may be null (open)
+    fun priceBitmap(minCents: Int?, maxCents: Int?): Bitmap {
+        val from = if (minCents == null) 0 else lowerBound(sortedCents, minCents)
+        val to = if (maxCents == null) sortedCents.size else upperBound(sortedCents, maxCents)
+        return bitmapOf(centsPositions, from, to)
+    }
+
+    // Products rated minRating or better
+    fun ratingBitmap(minRating: Double): Bitmap =
+        bitmapOf(ratingPositions, lowerBound(sortedRatings, minRating), sortedRatings.size)
+
+    // Same ranges over the catalog after a delta sync: carried values keep their sorted order, changed
+    // products are parsed and merged in
+    fun applying(delta: CatalogDelta): CatalogRanges {
+        val size = delta.size
+        val cents = IntArray(size)
+        val ratings = DoubleArray(size)
+        for (position in 0 until size) {
+            val old = delta.originOf(position)
+            if (old >= 0) {
+                cents[position] = priceCents[old]
+                ratings[position] = this.ratings[old]
+            } else {
+                val product = delta.products[position]
+                cents[position] = parsePriceCents(product.price)
+                ratings[position] = product.rating ?: Double.NaN
+            }
+        }
+        val byPrice = delta.carryOrder(centsPositions, compareBy<Int> { cents[it] }.thenBy { it }) { cents[it] >= 0 }
+        val byRating = delta.carryOrder(ratingPositions, compareBy<Int> { ratings[it] }.thenBy { it }) { !ratings[it].isNaN() }
+        return CatalogRanges(
+            size = size,
+            priceCents = cents,
+            ratings = ratings,
+            sortedCents = IntArray(byPrice.size) { cents[byPrice[it]] },
+            centsPositions = byPrice,
+            sortedRatings = DoubleArray(byRating.size) { ratings[byRating[it]] },
+            ratingPositions = byRating
+        )
+    }
+
+    private fun bitmapOf(positions: IntArray, from: Int, to: Int): Bitmap {
+        val bitmap = Bitmap(size)
+        for (i in from until to) bitmap.set(positions[i])
+        return bitmap
+    }
+
+    companion object {
+        fun build(products: List<Product>): CatalogRanges {
+            val size = products.size
+            val cents = IntArray(size)
+            val ratings = DoubleArray(size)
+            products.forEachIndexed { i, p ->
+                cents[i] = parsePriceCents(p.price)
+                ratings[i] = p.rating ?: Double.NaN
+            }
+
+            val byPrice = (0 until size).filter { cents[it] >= 0 }.sortedBy { cents[it] }.toIntArray()
+            val byRating = (0 until size).filter { !ratings[it].isNaN() }.sortedBy { ratings[it] }.toIntArray()
+            return CatalogRanges(
+                size = size,
+                priceCents = cents,
+                ratings = ratings,
+                sortedCents = IntArray(byPrice.size) { cents[byPrice[it]] },
+                centsPositions = byPrice,
+                sortedRatings = DoubleArray(byRating.size) { ratings[byRating[it]] },
+                ratingPositions = byRating
+            )
+        }
+
+        // "12.5" -> 1250, "9" -> 900; -1 when missing or unparseable
+        fun parsePriceCents(price: String?): Int {
+            val value = price?.trim()?.toBigDecimalOrNull() ?: return -1
+            if (value.signum() < 0) return -1
+            return value.movePointRight(2).setScale(0, java.math.RoundingMode.HALF_UP).toInt()
+        }
+
+        // First index with sorted[i] >= value
+        private fun lowerBound(sorted: IntArray, value: Int): Int {
+            var lo = 0
+            var hi = sorted.size
+            while (lo < hi) {
+                val mid = (lo + hi) ushr 1
+                if (sorted[mid] < value) lo = mid + 1 else hi = mid
+            }
+            return lo
+        }
+
+        // First index with sorted[i] > value
+        private fun upperBound(sorted: IntArray, value: Int): Int {
+            var lo = 0
+            var hi = sorted.size
+            while (lo < hi) {
+                val mid = (lo + hi) ushr 1
+                if (sorted[mid] <= value) lo = mid + 1 else hi = mid
+            }
+            return lo
+        }
+
+        private fun lowerBound(sorted: DoubleArray, value: Double): Int {
+            var lo = 0
+            var hi = sorted.size
+            while (lo < hi) {
+                val mid = (lo + hi) ushr 1
+                if (sorted[mid] < value) lo = mid + 1 else hi = mid
+            }
+            return lo
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Fts4
+import androidx.room.FtsOptions
+import androidx.room.PrimaryKey
+import com.example.beautyapp.data.Product
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/*
+ * CatalogSearch.kt
+ * PURPOSE: Full-text search over the cached catalog
+ * - catalog_search is an FTS4 table (rowid = product id) with name, brand, description and tags;
+ *   CatalogDao writes it in the same transactions that write catalog_products, so it never drifts
+ * - prefix indexes for 2 and 3 characters keep "li*" style queries fast while the user types
+ * - FTS4 has no bm25(), so hits are ranked here from matchinfo('pcx'): per column, term hits in the
+ *   row weighted by how rare the term is across the catalog, name matches counting the most
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61, prefix = [2, 3])
+@Entity(tableName = "catalog_search")
+data class CatalogSearchRow(
+    @PrimaryKey @ColumnInfo(name = "rowid") val productId: Int,
+    val name: String?,
+    val brand: String?,
+    val description: String?,
+    val tags: String?
+)
+
+// One FTS match: product id, its catalog position (tie-break) and the raw matchinfo blob
+class SearchHit(
+    val id: Int,
+    val position: Int,
+    @ColumnInfo(name = "match_info") val matchInfo: ByteArray
+)
+
+fun Product.toSearchRow(): CatalogSearchRow = CatalogSearchRow(
+    productId = id,
+    name = name,
+    brand = brand,
+    description = description,
+    tags = tagList?.joinToString(" ")
+)
+
+object CatalogSearch {
+
+    // Column order of catalog_search: name, brand, description, tags
+    private val COLUMN_WEIGHTS = doubleArrayOf(4.0, 2.5, 0.5, 1.5)
+
+    // "Red lip" -> "red* lip*": every word must match, each as a prefix. FTS syntax characters are
+    // stripped so user input can't produce a malformed MATCH expression. Null when nothing is left.
+    fun toMatchQuery(input: String): String? {
+        val terms = input.lowercase()
+            .split(Regex("[^\\p{L}\\p{N}]+"))
+            .filter { it.isNotEmpty() }
+        if (terms.isEmpty()) return null
+        return terms.joinToString(" ") { "$it*" }
+    }
+
+    // Best match first; equal scores in catalog (API) order. FTS hands hits back in rowid order,
+    // which is the product id, not the position, so the tie is broken on position explicitly.
+    fun rank(hits: List<SearchHit>): IntArray =
+        hits.map { Triple(it.id, it.position, score(it.matchInfo)) }
+            .sortedWith(compareByDescending<Triple<Int, Int, Double>> { it.third }.thenBy { it.second })
+            .map { it.first }
+            .toIntArray()
+
+    // matchinfo 'pcx' = [phrases, columns, then per phrase / column: hits in row, hits in all rows, rows with hits]
+    private fun score(matchInfo: ByteArray): Double {
+        val ints = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer()
+        val phrases = ints.get(0)
+        val columns = ints.get(1)
+        var score = 0.0
+        for (p in 0 until phrases) {
+            for (c in 0 until columns) {
+                val at = 2 + 3 * (p * columns + c)
+                val hitsInRow = ints.get(at)
+                if (hitsInRow == 0) continue
+                val rowsWithHits = ints.get(at + 2).coerceAtLeast(1)
+                val weight = COLUMN_WEIGHTS.getOrElse(c) { 1.0 }
+                score += weight * hitsInRow / rowsWithHits
+            }
+        }
+        return score
+    }
+}
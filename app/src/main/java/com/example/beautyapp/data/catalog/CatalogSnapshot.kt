@@ -0,0 +1,244 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+/*
+ * CatalogSnapshot.kt
+ * PURPOSE: Compact binary copy of the catalog that is memory-mapped on launch instead of
+ * being read back row by row from Room.
+ *
+ * FILE LAYOUT (all ints big-endian):
+ *   header   MAGIC, VERSION, productCount, stringCount, colorCount, tagCount
+ *   strings  (stringCount + 1) byte offsets, then the UTF-8 bytes of every distinct string
+ *   records  productCount fixed-width records (RECORD_BYTES each, see writeRecord)
+ *   colors   colorCount pairs of (packed ARGB, colourName string index) - see PackedColors
+ *   tags     tagCount tag string indexes
+ * A string index of -1 means null. Every distinct string is stored once.
+ *
+ * Opening a snapshot maps the file and checks that every count, offset and index stays inside
+ * the mapping (a few int reads per product, no decoding). A Product is decoded the first time the
+ * grid asks for it, so time to first frame doesn't depend on how big the catalog is.
+ */
+class CatalogSnapshot private constructor(private val buffer: ByteBuffer) {
+
+    companion object {
+        const val FILE_NAME = "catalog.snapshot"
+
+        private const val MAGIC = 0x42434154  // "BCAT"
+        private const val VERSION = 2  // 2 - colors stored as ARGB ints instead of hex strings
+        private const val HEADER_BYTES = 6 * 4
+        private const val STRING_FIELDS = 15
+        // id + 15 string indexes + rating (double) + colorStart/colorCount + tagStart/tagCount
+        private const val RECORD_BYTES = 4 + STRING_FIELDS * 4 + 8 + 4 * 4
+        private const val COLOR_BYTES = 8
+        private const val TAG_BYTES = 4
+        private const val NULL_INDEX = -1
+
+        // Maps the file, or returns null if it is missing, truncated, corrupt or from another format version
+        fun open(file: File): CatalogSnapshot? {
+            if (!file.exists() || file.length() !in HEADER_BYTES..Int.MAX_VALUE) return null
+            val buffer = RandomAccessFile(file, "r").use { raf ->
+                raf.channel.map(FileChannel.MapMode.READ_ONLY, 0, raf.length())
+            }
+            return if (isWellFormed(buffer)) CatalogSnapshot(buffer) else null
+        }
+
+        // Section sizes are summed as Longs, so huge or negative counts can't wrap around into range
+        private fun isWellFormed(buffer: ByteBuffer): Boolean {
+            val limit = buffer.limit().toLong()
+            if (limit < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) return false
+            val productCount = buffer.getInt(8)
+            val stringCount = buffer.getInt(12)
+            val colorCount = buffer.getInt(16)
+            val tagCount = buffer.getInt(20)
+            if (productCount < 0 || stringCount < 0 || colorCount < 0 || tagCount < 0) return false
+
+            // String offsets start at 0 and never go backwards
+            val stringDataStart = HEADER_BYTES + (stringCount + 1L) * 4
+            if (stringDataStart > limit || buffer.getInt(HEADER_BYTES) != 0) return false
+            var stringBytes = 0
+            for (i in 1..stringCount) {
+                val offset = buffer.getInt(HEADER_BYTES + i * 4)
+                if (offset < stringBytes) return false
+                stringBytes = offset
+            }
+
+            val recordsStart = stringDataStart + stringBytes
+            val colorsStart = recordsStart + productCount.toLong() * RECORD_BYTES
+            val tagsStart = colorsStart + colorCount.toLong() * COLOR_BYTES
+            if (tagsStart + tagCount.toLong() * TAG_BYTES != limit) return false
+
+            // Everything fits in the mapping now, so plain Int positions are safe from here on
+            fun validString(index: Int) = index == NULL_INDEX || index in 0 until stringCount
+            fun validRange(start: Int, length: Int, count: Int) = start >= 0 && length >= 0 && start.toLong() + length <= count
+            for (i in 0 until productCount) {
+                val at = recordsStart.toInt() + i * RECORD_BYTES
+                for (f in 0 until STRING_FIELDS) if (!validString(buffer.getInt(at + 4 + f * 4))) return false
+                val afterStrings = at + 4 + STRING_FIELDS * 4
+                if (!validRange(buffer.getInt(afterStrings + 8), buffer.getInt(afterStrings + 12), colorCount)) return false
+                if (!validRange(buffer.getInt(afterStrings + 16), buffer.getInt(afterStrings + 20), tagCount)) return false
+            }
+            // Shade names of the color pairs, then the tags, are string indexes
+            for (i in 0 until colorCount) {
+                if (!validString(buffer.getInt(colorsStart.toInt() + i * COLOR_BYTES + 4))) return false
+            }
+            for (i in 0 until tagCount) {
+                if (!validString(buffer.getInt(tagsStart.toInt() + i * TAG_BYTES))) return false
+            }
+            return true
+        }
+
+        // Writes to a temp file and renames it, so a reader never maps a half-written snapshot
+        fun write(file: File, products: List<Product>) {
+            val strings = LinkedHashMap<String, Int>()
+            fun indexOf(value: String?): Int =
+                if (value == null) NULL_INDEX else strings.getOrPut(value) { strings.size }
+
+            // First pass: assign string indexes and flatten colors / tags
+            val records = IntArray(products.size * (1 + STRING_FIELDS + 4))
+            val ratings = DoubleArray(products.size)
+            val colors = ArrayList<Int>()
+            val tags = ArrayList<Int>()
+            products.forEachIndexed { i, p ->
+                var at = i * (1 + STRING_FIELDS + 4)
+                records[at++] = p.id
+                for (value in stringFields(p)) records[at++] = indexOf(value)
+                ratings[i] = p.rating ?: Double.NaN
+                val productColors = p.productColors.orEmpty()
+                val argb = PackedColors.argbOf(productColors)
+                records[at++] = colors.size / 2
+                records[at++] = productColors.size
+                productColors.forEachIndexed { c, color ->
+                    colors.add(argb[c])
+                    colors.add(indexOf(color.colourName))
+                }
+                val productTags = p.tagList.orEmpty()
+                records[at++] = tags.size
+                records[at] = productTags.size
+                productTags.forEach { tags.add(indexOf(it)) }
+            }
+
+            val tmp = File(file.parentFile, "${file.name}.tmp")
+            DataOutputStream(FileOutputStream(tmp).buffered()).use { out ->
+                out.writeInt(MAGIC)
+                out.writeInt(VERSION)
+                out.writeInt(products.size)
+                out.writeInt(strings.size)
+                out.writeInt(colors.size / 2)
+                out.writeInt(tags.size)
+
+                val encoded = strings.keys.map { it.toByteArray(Charsets.UTF_8) }
+                var offset = 0
+                out.writeInt(offset)
+                encoded.forEach { offset += it.size; out.writeInt(offset) }
+                encoded.forEach { out.write(it) }
+
+                for (i in products.indices) {
+                    val base = i * (1 + STRING_FIELDS + 4)
+                    for (f in 0..STRING_FIELDS) out.writeInt(records[base + f])
+                    out.writeDouble(ratings[i])
+                    for (f in STRING_FIELDS + 1 until STRING_FIELDS + 5) out.writeInt(records[base + f])
+                }
+                colors.forEach { out.writeInt(it) }
+                tags.forEach { out.writeInt(it) }
+            }
+            if (!tmp.renameTo(file)) {
+                tmp.delete()
+            }
+        }
+
+        // Order matters - it is the on-disk field order of every record
+        private fun stringFields(p: Product): Array<String?> = arrayOf(
+            p.brand, p.name, p.price, p.priceSign, p.currency, p.imageLink, p.productLink,
+            p.websiteLink, p.description, p.category, p.productType, p.createdAt, p.updatedAt,
+            p.productApiUrl, p.apiFeaturedImage
+        )
+    }
+
+    val size: Int = buffer.getInt(8)
+    private val stringCount = buffer.getInt(12)
+    private val colorCount = buffer.getInt(16)
+
+    private val stringOffsetsStart = HEADER_BYTES
+    private val stringDataStart = stringOffsetsStart + (stringCount + 1) * 4
+    private val recordsStart = stringDataStart + buffer.getInt(stringOffsetsStart + stringCount * 4)
+    private val colorsStart = recordsStart + size * RECORD_BYTES
+    private val tagsStart = colorsStart + colorCount * COLOR_BYTES
+
+    // Decoded values are kept, so each string / product is built at most once
+    private val decodedStrings = arrayOfNulls<String>(stringCount)
+    private val decodedProducts = arrayOfNulls<Product>(size)
+
+    val products: List<Product> = object : AbstractList<Product>(), RandomAccess {
+        override val size: Int get() = this@CatalogSnapshot.size
+        override fun get(index: Int): Product = product(index)
+    }
+
+    fun product(index: Int): Product {
+        decodedProducts[index]?.let { return it }
+        val at = recordsStart + index * RECORD_BYTES
+        fun field(f: Int) = string(buffer.getInt(at + 4 + f * 4))
+        val afterStrings = at + 4 + STRING_FIELDS * 4
+        val rating = buffer.getDouble(afterStrings)
+        val colorStart = buffer.getInt(afterStrings + 8)
+        val colorLength = buffer.getInt(afterStrings + 12)
+        val tagStart = buffer.getInt(afterStrings + 16)
+        val tagLength = buffer.getInt(afterStrings + 20)
+
+        val product = Product(
+            id = buffer.getInt(at),
+            brand = field(0),
+            name = field(1),
+            price = field(2),
+            priceSign = field(3),
+            currency = field(4),
+            imageLink = field(5),
+            productLink = field(6),
+            websiteLink = field(7),
+            description = field(8),
+            rating = if (rating.isNaN()) null else rating,
+            category = field(9),
+            productType = field(10),
+            tagList = List(tagLength) { t -> string(buffer.getInt(tagsStart + (tagStart + t) * TAG_BYTES)) ?: "" },
+            createdAt = field(11),
+            updatedAt = field(12),
+            productApiUrl = field(13),
+            apiFeaturedImage = field(14),
+            productColors = if (colorLength == 0) emptyList() else PackedColors(
+                argb = IntArray(colorLength) { c -> buffer.getInt(colorsStart + (colorStart + c) * COLOR_BYTES) },
+                names = Array(colorLength) { c -> string(buffer.getInt(colorsStart + (colorStart + c) * COLOR_BYTES + 4)) }
+            )
+        )
+        decodedProducts[index] = product
+        return product
+    }
+
+    // Distinct, sorted brand / product type values read straight from the records, without building Products
+    fun brands(): List<String> = distinctField(0)
+    fun productTypes(): List<String> = distinctField(10)
+
+    private fun distinctField(field: Int): List<String> {
+        val seen = HashSet<Int>()
+        for (i in 0 until size) {
+            val index = buffer.getInt(recordsStart + i * RECORD_BYTES + 4 + field * 4)
+            if (index != NULL_INDEX) seen.add(index)
+        }
+        return seen.mapNotNull { string(it) }.sorted()
+    }
+
+    private fun string(index: Int): String? {
+        if (index == NULL_INDEX) return null
+        decodedStrings[index]?.let { return it }
+        val start = buffer.getInt(stringOffsetsStart + index * 4)
+        val end = buffer.getInt(stringOffsetsStart + (index + 1) * 4)
+        val bytes = ByteArray(end - start)
+        for (b in bytes.indices) bytes[b] = buffer.get(stringDataStart + start + b)
+        return String(bytes, Charsets.UTF_8).also { decodedStrings[index] = it }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+/*
+ * CatalogSort.kt
+ * PURPOSE: Sort orders computed once per catalog instead of on every sort change
+ * - For each SortKey a permutation (IntArray of catalog positions) is built when a complete catalog
+ *   is published from the values CatalogRanges already parsed; missing values go last in every order
+ * - A sorted, filtered view is one walk over the permutation keeping positions whose bit is set in
+ *   the filter bitmap - no comparisons, so switching sort costs O(n) bit tests at any catalog size
+ */
+
+// Sort options offered on the Products tab
+enum class SortKey(val label: String) {
+    FEATURED("Featured"),  // API order, or search relevance while searching
+    PRICE_LOW_HIGH("Price: low to high"),
+    PRICE_HIGH_LOW("Price: high to low"),
+    RATING("Top rated"),
+    NEWEST("Newest");
+
+    // For short lists that aren't indexed (streamed batches, server slices) - sorted on the spot
+    val comparator: Comparator<Product>?
+        get() = when (this) {
+            FEATURED -> null
+            PRICE_LOW_HIGH -> compareBy(nullsLast()) { CatalogRanges.parsePriceCents(it.price).takeIf { c -> c >= 0 } }
+            PRICE_HIGH_LOW -> compareBy(nullsLast(reverseOrder())) { CatalogRanges.parsePriceCents(it.price).takeIf { c -> c >= 0 } }
+            RATING -> compareBy(nullsLast(reverseOrder())) { it.rating }
+            NEWEST -> compareBy(nullsLast(reverseOrder())) { it.createdAt }
+        }
+}
+
+class CatalogSortOrders private constructor(
+    private val orders: Map<SortKey, IntArray>,
+    private val created: Array<String?>  // createdAt per position, so a delta never re-reads unchanged products
+) {
+
+    // Positions of the selection (null = everything) in the order of key; null for FEATURED (catalog order)
+    fun sorted(key: SortKey, selection: Bitmap?): IntArray? {
+        val permutation = orders[key] ?: return selection?.toPositions()
+        if (selection == null) return permutation
+        val result = IntArray(selection.cardinality())
+        var n = 0
+        for (position in permutation) {
+            if (selection[position]) result[n++] = position
+        }
+        return result
+    }
+
+    // Same orders over the catalog after a delta sync; ranges must already be the delta'd ones
+    fun applying(delta: CatalogDelta, ranges: CatalogRanges): CatalogSortOrders {
+        val created = Array(delta.size) { position ->
+            val old = delta.originOf(position)
+            if (old >= 0) this.created[old] else delta.products[position].createdAt
+        }
+        val comparators = comparators(ranges, created)
+        return CatalogSortOrders(
+            orders.mapValues { (key, permutation) -> delta.carryOrder(permutation, comparators.getValue(key)) },
+            created
+        )
+    }
+
+    companion object {
+        fun build(products: List<Product>, ranges: CatalogRanges): CatalogSortOrders {
+            val created = Array(products.size) { products[it].createdAt }
+            val positions = (0 until products.size).toList()
+            return CatalogSortOrders(
+                comparators(ranges, created).mapValues { (_, comparator) -> positions.sortedWith(comparator).toIntArray() },
+                created
+            )
+        }
+
+        // Missing values sort after everything else, ties keep catalog order
+        private fun comparators(ranges: CatalogRanges, created: Array<String?>): Map<SortKey, Comparator<Int>> {
+            val cents = ranges.priceCents
+            val ratings = ranges.ratings
+
+            fun order(hasValue: (Int) -> Boolean, byValue: Comparator<Int>): Comparator<Int> =
+                compareBy<Int> { !hasValue(it) }
+                    .then { a, b -> if (hasValue(a) && hasValue(b)) byValue.compare(a, b) else 0 }
+                    .thenBy { it }
+
+            return mapOf(
+                SortKey.PRICE_LOW_HIGH to order({ cents[it] >= 0 }, compareBy { cents[it] }),
+                SortKey.PRICE_HIGH_LOW to order({ cents[it] >= 0 }, compareByDescending { cents[it] }),
+                SortKey.RATING to order({ !ratings[it].isNaN() }, compareByDescending { ratings[it] }),
+                // ISO-8601 timestamps order as strings
+                SortKey.NEWEST to order({ created[it] != null }, compareByDescending { created[it] })
+            )
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.network.ProductStreamParser
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import okhttp3.ResponseBody
+import retrofit2.HttpException
+import retrofit2.Response
+
+/*
+ * CatalogSyncEngine.kt
+ * PURPOSE: Brings an already cached catalog up to date by applying only what changed
+ * - The response validator (ETag / Last-Modified) of the last ingested download is stored; when
+ *   the server answers 304, or the HTTP cache serves that same body, nothing is parsed at all
+ * - Otherwise the body is streamed and each product is compared against the watermark
+ *   (the newest updated_at we hold). Unknown ids and products updated after the watermark
+ *   are upserts, ids we hold that the server no longer lists are deletions
+ * - Room (every field, as parsed) and the in-memory list (compacted) are patched in place: updated
+ *   rows keep their position, new rows are appended, so writes scale with the number of changes.
+ *   The caller carries the catalog's indexes over the same way (Catalog.applyDelta) instead of
+ *   rebuilding them
+ * What scales with what: the Makeup API has no changed-since filter (only brand, type, category,
+ * tags, price and rating), so when the catalog changed at all the whole list is downloaded, parsed
+ * and compared - bytes and parse CPU follow catalog size. Only the Room writes and the index patches
+ * follow the number of changes. An unchanged catalog costs a 304 or a validator compare.
+ */
+class CatalogSyncEngine(
+    private val catalogDao: CatalogDao,
+    private val clock: () -> Long
+) {
+
+    sealed class Result {
+        // Server copy is the one we already hold - only the sync time was bumped
+        object Unchanged : Result()
+
+        // products is the merged list; changedIds / deletedIds let the caller patch its indexes (Catalog.applyDelta)
+        data class Delta(
+            val products: List<Product>,
+            val changedIds: Set<Int>,
+            val deletedIds: Set<Int>
+        ) : Result() {
+            val upserted: Int get() = changedIds.size
+            val deleted: Int get() = deletedIds.size
+        }
+    }
+
+    suspend fun sync(current: List<Product>, response: Response<ResponseBody>): Result {
+        val body = response.body()
+        if (!response.isSuccessful || body == null) {
+            response.errorBody()?.close()
+            throw HttpException(response)
+        }
+
+        val previous = catalogDao.getSyncState(ProductRepository.CATALOG_ALL)
+        val validator = validatorOf(response)
+        if (validator != null && validator == previous?.validator) {
+            body.close()
+            catalogDao.upsertSyncState(previous.copy(lastSyncedAt = clock()))
+            return Result.Unchanged
+        }
+
+        val watermark = previous?.watermark
+        val localById = withContext(Dispatchers.Default) {
+            HashMap<Int, Product>(current.size * 2).apply { current.forEach { put(it.id, it) } }
+        }
+        val compactor = CatalogCompactor()
+        val seen = HashSet<Int>(current.size * 2)
+        val changed = LinkedHashMap<Int, Product>()  // compacted, for the in-memory list
+        val changedRows = ArrayList<Product>()  // as parsed, for Room
+
+        ProductStreamParser.parse(body).collect { batch ->
+            withContext(Dispatchers.Default) {
+                for (raw in batch) {
+                    if (!seen.add(raw.id)) continue
+                    val local = localById[raw.id]
+                    val isChanged = when {
+                        local == null -> true
+                        raw.updatedAt == null || watermark == null -> compactor.compact(raw) != local
+                        else -> raw.updatedAt > watermark  // ISO-8601 timestamps order as strings
+                    }
+                    if (isChanged) {
+                        changed[raw.id] = compactor.compact(raw)
+                        changedRows.add(raw)
+                    }
+                }
+            }
+        }
+
+        val deletedIds = localById.keys.filterNot { it in seen }
+        val newWatermark = maxOf(watermark, changed.values.mapNotNull { it.updatedAt }.maxOrNull())
+
+        if (changed.isEmpty() && deletedIds.isEmpty()) {
+            catalogDao.upsertSyncState(CatalogSyncState(ProductRepository.CATALOG_ALL, clock(), newWatermark, validator))
+            return Result.Unchanged
+        }
+
+        // Patch the in-memory list: replace in place, drop deleted, append new
+        val merged = withContext(Dispatchers.Default) {
+            val deleted = deletedIds.toHashSet()
+            val result = ArrayList<Product>(current.size + changed.size)
+            current.forEach { product ->
+                if (product.id !in deleted) result.add(changed[product.id] ?: product)
+            }
+            changed.values.forEach { if (it.id !in localById) result.add(it) }
+            result
+        }
+
+        // Updated rows keep the position they already have in Room, new rows go after the last one
+        val existingIds = changed.keys.filter { it in localById }
+        val positions = HashMap<Int, Int>(existingIds.size * 2)
+        existingIds.chunked(MAX_QUERY_IDS).forEach { chunk ->
+            catalogDao.getPositions(chunk).forEach { positions[it.id] = it.position }
+        }
+        var nextPosition = (catalogDao.maxPosition() ?: -1) + 1
+        val rows = changedRows.map { product ->
+            product.toCachedProduct(positions[product.id] ?: nextPosition++)
+        }
+        catalogDao.applyDelta(
+            products = rows,
+            colors = changedRows.flatMap { it.toCachedColors() },
+            tags = changedRows.flatMap { it.toCachedTags() },
+            searchRows = changedRows.map { it.toSearchRow() },
+            deletedIds = deletedIds,
+            syncState = CatalogSyncState(ProductRepository.CATALOG_ALL, clock(), newWatermark, validator)
+        )
+        return Result.Delta(merged, changedIds = changed.keys, deletedIds = deletedIds.toSet())
+    }
+
+    companion object {
+        // Stay well below SQLite's 999 bound-variable limit for IN (...) lists
+        const val MAX_QUERY_IDS = 500
+
+        fun validatorOf(response: Response<*>): String? =
+            response.headers()["ETag"] ?: response.headers()["Last-Modified"]
+
+        private fun maxOf(a: String?, b: String?): String? = when {
+            a == null -> b
+            b == null -> a
+            else -> if (a >= b) a else b
+        }
+    }
+}
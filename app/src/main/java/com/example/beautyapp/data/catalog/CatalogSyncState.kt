@@ -0,0 +1,14 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+// One row per catalog we mirror locally, remembers when it was last refreshed from the network
+@Entity(tableName = "catalog_sync")
+data class CatalogSyncState(
+    @PrimaryKey val catalog: String,
+    @ColumnInfo(name = "last_synced_at") val lastSyncedAt: Long,
+    val watermark: String? = null,  // newest updated_at held locally
+    val validator: String? = null  // ETag / Last-Modified of the last ingested response
+)
@@ -0,0 +1,37 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.utils.parseArgb
+
+// One product's swatches as packed ARGB ints plus their shade names - what a compacted product holds
+// instead of a List of ProductColor objects with hex strings. A ProductColor is only built when a
+// screen reads one, with its hex normalized to "#RRGGBB". 0 marks a hex code that didn't parse and
+// reads back as a null hexValue. PackedSwatches indexes these same arrays, it doesn't copy them.
+class PackedColors(
+    val argb: IntArray,
+    val names: Array<String?>
+) : AbstractList<ProductColor>(), RandomAccess {
+
+    override val size: Int get() = argb.size
+
+    override fun get(index: Int): ProductColor = ProductColor(hexValue = hexOf(argb[index]), colourName = names[index])
+
+    companion object {
+        // nameOf lets the compactor intern the shade names
+        fun of(colors: List<ProductColor>, nameOf: (String?) -> String? = { it }): PackedColors = PackedColors(
+            argb = IntArray(colors.size) { parseArgb(colors[it].hexValue) ?: 0 },
+            names = Array(colors.size) { nameOf(colors[it].colourName?.trim()) }
+        )
+
+        // Swatch colors of any list, packed or not, as ARGB ints (0 = unparseable)
+        fun argbOf(colors: List<ProductColor>?): IntArray = when (colors) {
+            null -> EMPTY_ARGB
+            is PackedColors -> colors.argb
+            else -> IntArray(colors.size) { parseArgb(colors[it].hexValue) ?: 0 }
+        }
+
+        fun hexOf(argb: Int): String? = if (argb == 0) null else "#%06X".format(argb and 0xFFFFFF)
+
+        private val EMPTY_ARGB = IntArray(0)
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+// Every product_colors swatch of the catalog as packed ARGB ints, numbered catalog-wide.
+// Swatches of product i are offsets[i] until offsets[i + 1]; unparseable hex codes are 0 (transparent).
+// The ints are the products' own PackedColors arrays, shared rather than copied - only products that
+// weren't compacted get their hex codes parsed here.
+class PackedSwatches(
+    val offsets: IntArray,
+    private val colors: Array<IntArray>
+) {
+    val size: Int get() = offsets[offsets.size - 1]
+
+    fun countFor(productIndex: Int): Int = colors[productIndex].size
+
+    fun colorAt(productIndex: Int, swatch: Int): Int = colors[productIndex][swatch]
+
+    // Color of a catalog-wide swatch index
+    fun argbAt(swatchIndex: Int): Int {
+        val product = productOf(swatchIndex)
+        return colors[product][swatchIndex - offsets[product]]
+    }
+
+    // Position of a swatch back to the product that owns it (last i with offsets[i] <= swatchIndex)
+    fun productOf(swatchIndex: Int): Int {
+        var lo = 0
+        var hi = offsets.size - 2
+        while (lo < hi) {
+            val mid = (lo + hi + 1) ushr 1
+            if (offsets[mid] <= swatchIndex) lo = mid else hi = mid - 1
+        }
+        return lo
+    }
+
+    // Same swatches over the catalog after a delta sync: unchanged products keep their arrays
+    fun applying(delta: CatalogDelta): PackedSwatches = of(Array(delta.size) { position ->
+        val old = delta.originOf(position)
+        if (old >= 0) colors[old] else PackedColors.argbOf(delta.products[position].productColors)
+    })
+
+    companion object {
+        fun from(products: List<Product>): PackedSwatches =
+            of(Array(products.size) { PackedColors.argbOf(products[it].productColors) })
+
+        private fun of(colors: Array<IntArray>): PackedSwatches {
+            val offsets = IntArray(colors.size + 1)
+            for (i in colors.indices) offsets[i + 1] = offsets[i] + colors[i].size
+            return PackedSwatches(offsets, colors)
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.beautyapp.data.catalog
+
+import android.content.Context
+import android.util.Log
+import android.util.LruCache
+import com.example.beautyapp.data.AppDatabase
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.network.LatencyBudget
+import com.example.beautyapp.network.MakeupApi
+import com.example.beautyapp.network.MakeupApiService
+import com.example.beautyapp.network.ProductStreamParser
+import com.example.beautyapp.network.Resilience
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import retrofit2.HttpException
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+/*
+ * ProductRepository.kt
+ * PURPOSE: Offline-first access to the Makeup API catalog
+ * - loadCached() maps the binary CatalogSnapshot (falls back to Room if there is none yet)
+ * - isStale() tells the caller whether the copy on disk is older than the staleness window
+ * - refresh() streams the whole catalog in batches, replaces the Room copy with every parsed field in
+ *   one transaction, and keeps / snapshots the compacted products (CatalogCompactor) - used when
+ *   nothing is cached yet
+ * - sync() updates an existing catalog through CatalogSyncEngine, touching only changed rows
+ * - search() runs a ranked, prefix-aware full-text query over the FTS table (ids, best first)
+ * - fetchSlice() gets one server-filtered slice (brand= / product_type=), cached per filter key;
+ *   slices are small, so a slow one is hedged with a second request
+ * The ViewModel shows the cached copy first and only goes to the network when it is stale,
+ * so a warm start inside the window makes no network call at all.
+ */
+class ProductRepository(
+    private val catalogDao: CatalogDao,
+    private val api: MakeupApiService,
+    private val snapshotFile: File,
+    private val staleAfterMillis: Long = DEFAULT_STALE_AFTER_MILLIS,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+
+    private val syncEngine = CatalogSyncEngine(catalogDao, clock)
+
+    // Narrow slices fetched while the full catalog is unavailable, keyed by filter
+    private val slices = LruCache<CatalogQueryPlanner.SliceKey, List<Product>>(MAX_CACHED_SLICES)
+
+    companion object {
+        private const val TAG = "ProductRepository"
+        const val CATALOG_ALL = "makeup_api_all"
+        val DEFAULT_STALE_AFTER_MILLIS: Long = TimeUnit.HOURS.toMillis(6)
+        private const val MAX_CACHED_SLICES = 16
+        private val PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250)
+
+
+        // Same wiring for the ViewModel and the background prefetch, so both read and write one cache
+        fun create(context: Context): ProductRepository = ProductRepository(
+            catalogDao = AppDatabase.getDatabase(context).catalogDao(),
+            api = MakeupApi.service,
+            snapshotFile = File(context.filesDir, CatalogSnapshot.FILE_NAME)
+        )
+    }
+
+    suspend fun loadCached(): Catalog = withContext(Dispatchers.IO) {
+        val snapshot = try {
+            CatalogSnapshot.open(snapshotFile)
+        } catch (e: Exception) {
+            Log.e(TAG, "Unreadable catalog snapshot, falling back to Room", e)
+            null
+        }
+        // Room is what sync patches, so a snapshot is only trusted while Room still holds the catalog too
+        if (snapshot != null && catalogDao.countProducts() > 0) return@withContext Catalog.of(snapshot)
+
+        // First launch after an upgrade (or a bad snapshot): read Room once and write a snapshot for next time
+        val products = CatalogCompactor().compactAll(catalogDao.getCatalog().map { it.toProduct() })
+        if (products.isNotEmpty()) writeSnapshot(products)
+        Catalog.of(products)
+    }
+
+    suspend fun isStale(): Boolean {
+        val syncState = catalogDao.getSyncState(CATALOG_ALL) ?: return true
+        return clock() - syncState.lastSyncedAt >= staleAfterMillis
+    }
+
+    // onProgress gets the products read so far, so a cold start can render early: after the first batch,
+    // then at most every PROGRESS_INTERVAL_MILLIS. Each update is a view over the batches read so far
+    // with facets kept up to date per batch, so publishing never copies or re-scans the whole list.
+    suspend fun refresh(onProgress: (suspend (Catalog) -> Unit)? = null): Catalog {
+        val response = api.getProductsStream()
+        val body = response.body()
+        if (!response.isSuccessful || body == null) {
+            response.errorBody()?.close()
+            throw HttpException(response)
+        }
+        // Room gets every field as parsed, memory and the snapshot get the compacted products.
+        // The parsed ones are only held until they're saved.
+        val parsed = ArrayList<Product>()
+        val products = ArrayList<Product>()
+        val batches = ArrayList<List<Product>>()
+        val brands = sortedSetOf<String>()
+        val productTypes = sortedSetOf<String>()
+        val compactor = CatalogCompactor()
+        var lastProgressAt = Long.MIN_VALUE
+        ProductStreamParser.parse(body).collect { batch ->
+            parsed.addAll(batch)
+            val compact = withContext(Dispatchers.Default) { compactor.compactAll(batch) }
+            products.addAll(compact)
+            if (onProgress == null) return@collect
+            batches.add(compact)
+            compact.forEach { product ->
+                product.brand?.let { brands.add(it) }
+                product.productType?.let { productTypes.add(it) }
+            }
+            val now = System.nanoTime()
+            if (lastProgressAt == Long.MIN_VALUE || now - lastProgressAt >= PROGRESS_INTERVAL_NANOS) {
+                lastProgressAt = now
+                onProgress(Catalog(BatchedProducts(batches.toTypedArray()), brands.toList(), productTypes.toList()))
+            }
+        }
+        if (CatalogHeapReport.isEnabled) CatalogHeapReport.log(parsed, products, compactor.internedStrings)
+        // The API occasionally repeats an id - keep the first one so the primary key stays unique
+        val kept = withContext(Dispatchers.Default) {
+            val seen = HashSet<Int>(products.size * 2)
+            products.indices.filter { seen.add(products[it].id) }
+        }
+        saveCatalog(kept.map { parsed[it] }, CatalogSyncEngine.validatorOf(response))
+        parsed.clear()
+        val unique = kept.map { products[it] }
+        withContext(Dispatchers.IO) { writeSnapshot(unique) }
+        return Catalog.of(unique)
+    }
+
+    // Returns the updated catalog, or null when the server has nothing new
+    suspend fun sync(current: Catalog): Catalog? {
+        return when (val result = syncEngine.sync(current.products, api.getProductsStream())) {
+            is CatalogSyncEngine.Result.Unchanged -> {
+                Log.d(TAG, "Catalog sync: unchanged")
+                null
+            }
+            is CatalogSyncEngine.Result.Delta -> {
+                Log.d(TAG, "Catalog sync: ${result.upserted} upserted, ${result.deleted} deleted")
+                withContext(Dispatchers.IO) { writeSnapshot(result.products) }
+                withContext(Dispatchers.Default) { current.applyDelta(result.products, result.changedIds, result.deletedIds) }
+            }
+        }
+    }
+
+    // Empty result for input with no searchable characters
+    suspend fun search(input: String): IntArray {
+        val matchQuery = CatalogSearch.toMatchQuery(input) ?: return IntArray(0)
+        val hits = catalogDao.search(matchQuery)
+        return withContext(Dispatchers.Default) { CatalogSearch.rank(hits) }
+    }
+
+    suspend fun fetchSlice(key: CatalogQueryPlanner.SliceKey): List<Product> {
+        slices.get(key)?.let { return it }
+        val products = Resilience.hedged(LatencyBudget.MAKEUP_PRODUCTS.hedgeAfterMillis) {
+            api.getProducts(brand = key.brand, productType = key.productType)
+        }
+        val compact = withContext(Dispatchers.Default) { CatalogCompactor().compactAll(products) }
+        slices.put(key, compact)
+        return compact
+    }
+
+    private suspend fun saveCatalog(products: List<Product>, validator: String?) {
+        val (rows, colors, tags) = withContext(Dispatchers.Default) {
+            Triple(
+                products.mapIndexed { index, product -> product.toCachedProduct(index) },
+                products.flatMap { it.toCachedColors() },
+                products.flatMap { it.toCachedTags() }
+            )
+        }
+        val searchRows = withContext(Dispatchers.Default) { products.map { it.toSearchRow() } }
+        val watermark = products.mapNotNull { it.updatedAt }.maxOrNull()
+        catalogDao.replaceCatalog(rows, colors, tags, searchRows, CatalogSyncState(CATALOG_ALL, clock(), watermark, validator))
+    }
+
+    // The snapshot is only a faster copy of what Room holds, so failing to write it is not fatal
+    private fun writeSnapshot(products: List<Product>) {
+        try {
+            CatalogSnapshot.write(snapshotFile, products)
+        } catch (e: Exception) {
+            Log.e(TAG, "Failed to write catalog snapshot", e)
+        }
+    }
+}
+
+// Read-only list over the batches of a download in progress. Batches are never modified once added,
+// so a published view stays valid while later batches keep arriving.
+private class BatchedProducts(private val batches: Array<List<Product>>) : AbstractList<Product>(), RandomAccess {
+    private val starts = IntArray(batches.size + 1).also { starts ->
+        batches.forEachIndexed { i, batch -> starts[i + 1] = starts[i] + batch.size }
+    }
+
+    override val size: Int get() = starts[batches.size]
+
+    override fun get(index: Int): Product {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("$index of $size")
+        // Last batch starting at or before index
+        var lo = 0
+        var hi = batches.size - 1
+        while (lo < hi) {
+            val mid = (lo + hi + 1) ushr 1
+            if (starts[mid] <= index) lo = mid else hi = mid - 1
+        }
+        return batches[lo][index - starts[lo]]
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+import com.example.beautyapp.data.ProductColor
+
+// Recommendation groups on the Shade Match tab and the API product types that belong to each
+enum class ShadeMatchCategory(val label: String, val productTypes: Set<String>) {
+    FOUNDATION("Foundation", setOf("foundation")),
+    BLUSH("Blush", setOf("blush")),
+    LIP("Lip", setOf("lipstick", "lip_liner"));
+
+    companion object {
+        fun of(productType: String?): ShadeMatchCategory? = entries.firstOrNull { productType in it.productTypes }
+    }
+}
+
+// One precomputed match: the rank-th closest catalog product (by its best swatch) for a makeup.db
+// shade. Product fields are copied in so the Shade Match tab can render without the catalog.
+@Entity(tableName = "shade_matches", primaryKeys = ["shade_id", "category", "rank"])
+data class ShadeMatch(
+    @ColumnInfo(name = "shade_id") val shadeId: Int,
+    val category: String,  // ShadeMatchCategory name
+    val rank: Int,
+    @ColumnInfo(name = "product_id") val productId: Int,
+    val brand: String?,
+    val name: String?,
+    @ColumnInfo(name = "image_link") val imageLink: String?,
+    val price: String?,
+    @ColumnInfo(name = "price_sign") val priceSign: String?,
+    @ColumnInfo(name = "hex_value") val hexValue: String?,
+    @ColumnInfo(name = "colour_name") val colourName: String?,
+    val distance: Float  // CIE76 delta E between the shade and the swatch
+) {
+    // The swatch as the cart stores it
+    val productColor: ProductColor get() = ProductColor(hexValue = hexValue, colourName = colourName)
+}
+
+// What the rows in shade_matches were computed from - a single row, replaced together with them
+@Entity(tableName = "shade_match_state")
+data class ShadeMatchState(
+    @PrimaryKey val id: Int = 0,
+    val fingerprint: String,  // ShadeMatchRepository's hash of the catalog and shade list
+    @ColumnInfo(name = "computed_at") val computedAt: Long
+)
@@ -0,0 +1,36 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+import kotlinx.coroutines.flow.Flow
+
+// Abstract class so replaceMatches() can swap the whole table and its fingerprint in one @Transaction
+@Dao
+abstract class ShadeMatchDao {
+
+    // Re-emits when the matches are recomputed, so an open Shade Match tab picks them up
+    @Query("SELECT * FROM shade_matches WHERE shade_id = :shadeId ORDER BY category, rank")
+    abstract fun observeMatches(shadeId: Int): Flow<List<ShadeMatch>>
+
+    @Query("SELECT * FROM shade_match_state WHERE id = 0")
+    abstract suspend fun getState(): ShadeMatchState?
+
+    @Insert
+    protected abstract suspend fun insertMatches(matches: List<ShadeMatch>)
+
+    @Query("DELETE FROM shade_matches")
+    protected abstract suspend fun deleteAllMatches()
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    protected abstract suspend fun upsertState(state: ShadeMatchState)
+
+    @Transaction
+    open suspend fun replaceMatches(matches: List<ShadeMatch>, state: ShadeMatchState) {
+        deleteAllMatches()
+        insertMatches(matches)
+        upsertState(state)
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.beautyapp.data.catalog
+
+import android.content.Context
+import android.util.Log
+import com.example.beautyapp.data.AppDatabase
+import com.example.beautyapp.data.MakeupDatabase
+import com.example.beautyapp.data.ShadeDao
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.withContext
+
+/*
+ * ShadeMatchRepository.kt
+ * PURPOSE: Keeps the shade_matches table in step with the catalog and the makeup.db shades
+ * - refreshIfNeeded() fingerprints everything ShadeMatcher reads (every product's id, updated_at,
+ *   type, the fields copied into a match, its colors) and the shade list; only when that changed
+ *   does it run ShadeMatcher and replace the table, and the fingerprint in shade_match_state, in one
+ *   transaction
+ * - observeMatches() is what the Shade Match tab reads - a plain indexed query, grouped by category
+ * Called whenever a complete catalog is published or synced in the background.
+ */
+class ShadeMatchRepository(
+    private val shadeMatchDao: ShadeMatchDao,
+    private val shadeDao: ShadeDao,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+
+    companion object {
+        private const val TAG = "ShadeMatchRepository"
+
+        fun create(context: Context): ShadeMatchRepository = ShadeMatchRepository(
+            shadeMatchDao = AppDatabase.getDatabase(context).shadeMatchDao(),
+            shadeDao = MakeupDatabase.getDatabase(context).shadeDao()
+        )
+    }
+
+    // Returns true when the matches were recomputed
+    suspend fun refreshIfNeeded(catalog: Catalog): Boolean {
+        if (catalog.isEmpty) return false
+        val shades = shadeDao.getAllShades()
+        val fingerprint = withContext(Dispatchers.Default) {
+            "${catalog.products.size}:${matchInputsHash(catalog).toString(16)}:${shades.hashCode()}"
+        }
+        if (shadeMatchDao.getState()?.fingerprint == fingerprint) return false
+
+        val startedAt = clock()
+        val matches = ShadeMatcher.compute(shades, catalog)
+        shadeMatchDao.replaceMatches(matches, ShadeMatchState(fingerprint = fingerprint, computedAt = clock()))
+        Log.d(TAG, "Matched ${shades.size} shades against ${catalog.products.size} products in ${clock() - startedAt}ms")
+        return true
+    }
+
+    // 64-bit, order-sensitive hash over the products as ShadeMatcher sees them, so a deletion paired
+    // with an insert, or an edit that leaves the newest updated_at alone, still changes it
+    private fun matchInputsHash(catalog: Catalog): Long {
+        var hash = 1125899906842597L
+        fun mix(value: Any?) {
+            hash = 31 * hash + (value?.hashCode() ?: 0)
+        }
+        for (product in catalog.products) {
+            mix(product.id)
+            mix(product.updatedAt)
+            mix(product.productType)
+            mix(product.brand)
+            mix(product.name)
+            mix(product.imageLink)
+            mix(product.price)
+            mix(product.priceSign)
+            product.productColors?.forEach {
+                mix(it.hexValue)
+                mix(it.colourName)
+            }
+            mix(-1)  // product boundary, so colors can't shift from one product to the next
+        }
+        return hash
+    }
+
+    fun observeMatches(shadeId: Int): Flow<Map<ShadeMatchCategory, List<ShadeMatch>>> =
+        shadeMatchDao.observeMatches(shadeId).map { rows ->
+            rows.groupBy { ShadeMatchCategory.valueOf(it.category) }
+                .toSortedMap(compareBy { it.ordinal })
+        }
+}
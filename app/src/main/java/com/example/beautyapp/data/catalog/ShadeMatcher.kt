@@ -0,0 +1,113 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Shade
+import com.example.beautyapp.utils.argbToLab
+import com.example.beautyapp.utils.labDistanceSquared
+import com.example.beautyapp.utils.parseArgb
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+
+/*
+ * ShadeMatcher.kt
+ * PURPOSE: Batch job ranking catalog products against every makeup.db shade
+ * - The catalog is split into one chunk of products per core; each chunk converts its swatches to
+ *   CIELAB, finds every product's closest swatch to each shade and keeps the best perCategory
+ *   products per (shade, category)
+ * - Chunks never share a product, so merging the partial top lists keeps one entry per product
+ * - Pure CPU work on Dispatchers.Default; the result is stored by ShadeMatchRepository
+ */
+object ShadeMatcher {
+
+    const val MATCHES_PER_CATEGORY = 10
+
+    private val categories = ShadeMatchCategory.entries
+    private val PARALLELISM = Runtime.getRuntime().availableProcessors().coerceAtLeast(1)
+
+    suspend fun compute(shades: List<Shade>, catalog: Catalog, perCategory: Int = MATCHES_PER_CATEGORY): List<ShadeMatch> =
+        coroutineScope {
+            val targets = shades.mapNotNull { shade -> parseArgb(shade.hexCode)?.let { shade to argbToLab(it) } }
+            if (targets.isEmpty() || catalog.isEmpty) return@coroutineScope emptyList()
+
+            val products = catalog.products
+            val swatches = catalog.swatches
+            val chunkSize = (products.size + PARALLELISM - 1) / PARALLELISM
+            val partials = (0 until products.size step chunkSize).map { from ->
+                async(Dispatchers.Default) {
+                    matchChunk(catalog, from, minOf(from + chunkSize, products.size), targets.map { it.second }, perCategory)
+                }
+            }.awaitAll()
+
+            // tops[shade * categories + category]
+            val tops = Array(targets.size * categories.size) { slot ->
+                BoundedNeighbors(perCategory).apply { partials.forEach { mergeFrom(it[slot]) } }
+            }
+
+            val matches = ArrayList<ShadeMatch>()
+            targets.forEachIndexed { s, (shade, _) ->
+                categories.forEachIndexed { c, category ->
+                    tops[s * categories.size + c].toList().forEachIndexed { rank, neighbor ->
+                        val position = swatches.productOf(neighbor.swatch)
+                        val product = products[position]
+                        val color = product.productColors?.getOrNull(neighbor.swatch - swatches.offsets[position])
+                        matches.add(
+                            ShadeMatch(
+                                shadeId = shade.shadeId,
+                                category = category.name,
+                                rank = rank,
+                                productId = product.id,
+                                brand = product.brand,
+                                name = product.name,
+                                imageLink = product.imageLink,
+                                price = product.price,
+                                priceSign = product.priceSign,
+                                hexValue = color?.hexValue,
+                                colourName = color?.colourName,
+                                distance = neighbor.distance
+                            )
+                        )
+                    }
+                }
+            }
+            matches
+        }
+
+    // Products [from, to): best swatch per product and shade, offered to that shade's category list
+    private fun matchChunk(
+        catalog: Catalog,
+        from: Int,
+        to: Int,
+        targets: List<FloatArray>,
+        perCategory: Int
+    ): Array<BoundedNeighbors> {
+        val tops = Array(targets.size * categories.size) { BoundedNeighbors(perCategory) }
+        val swatches = catalog.swatches
+        val lab = FloatArray(3)
+        val bestSwatch = IntArray(targets.size)
+        val bestDistance = FloatArray(targets.size)
+
+        for (position in from until to) {
+            val category = ShadeMatchCategory.of(catalog.products[position].productType) ?: continue
+            bestSwatch.fill(-1)
+            bestDistance.fill(Float.POSITIVE_INFINITY)
+            for (c in 0 until swatches.countFor(position)) {
+                val argb = swatches.colorAt(position, c)
+                if (argb == 0) continue  // unparseable hex
+                val swatch = swatches.offsets[position] + c
+                argbToLab(argb, lab)
+                for (s in targets.indices) {
+                    val d = labDistanceSquared(lab, 0, targets[s], 0)
+                    if (d < bestDistance[s]) {
+                        bestDistance[s] = d
+                        bestSwatch[s] = swatch
+                    }
+                }
+            }
+            for (s in targets.indices) {
+                if (bestSwatch[s] >= 0) tops[s * categories.size + category.ordinal].offer(bestSwatch[s], bestDistance[s])
+            }
+        }
+        return tops
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.utils.argbToLab
+import com.example.beautyapp.utils.labDistanceSquared
+
+/*
+ * SwatchIndex.kt
+ * PURPOSE: "Products in this shade" - k nearest catalog swatches to any color, by perceptual distance
+ * - Every parseable swatch in PackedSwatches is converted to CIELAB once, when the catalog is indexed
+ * - Points live in a balanced k-d tree stored implicitly in flat arrays: the node of a range
+ *   [lo, hi) is its middle element, split axis cycles L -> a -> b. No node objects, so tens of
+ *   thousands of swatches cost three floats and one int each
+ * - A query descends towards the target first and only visits the far side of a split when the
+ *   current k-th best distance reaches across it - typically a few hundred points, well under 1 ms
+ */
+class SwatchIndex private constructor(
+    private val points: FloatArray,  // L, a, b per node, in tree order
+    private val swatchIds: IntArray  // node -> catalog-wide swatch index (PackedSwatches)
+) {
+    val size: Int get() = swatchIds.size
+
+    class Neighbor(val swatch: Int, val distance: Float)
+
+    // Up to k swatches closest to argb, nearest first; accept filters swatches (e.g. by product)
+    fun nearest(argb: Int, k: Int, accept: (Int) -> Boolean = { true }): List<Neighbor> {
+        if (k <= 0 || size == 0) return emptyList()
+        val target = argbToLab(argb)
+        val best = BoundedNeighbors(k)
+        search(0, size, 0, target, best, accept)
+        return best.toList()
+    }
+
+    private fun search(lo: Int, hi: Int, axis: Int, target: FloatArray, best: BoundedNeighbors, accept: (Int) -> Boolean) {
+        if (lo >= hi) return
+        val mid = (lo + hi) ushr 1
+        val swatch = swatchIds[mid]
+        if (accept(swatch)) best.offer(swatch, labDistanceSquared(points, mid * 3, target, 0))
+
+        val delta = target[axis] - points[mid * 3 + axis]
+        val next = (axis + 1) % 3
+        // Near side first, so the far side is usually pruned by the time we get there
+        if (delta < 0) {
+            search(lo, mid, next, target, best, accept)
+            if (delta * delta < best.worst()) search(mid + 1, hi, next, target, best, accept)
+        } else {
+            search(mid + 1, hi, next, target, best, accept)
+            if (delta * delta < best.worst()) search(lo, mid, next, target, best, accept)
+        }
+    }
+
+    companion object {
+        val EMPTY = SwatchIndex(FloatArray(0), IntArray(0))
+
+        fun build(swatches: PackedSwatches): SwatchIndex {
+            // 0 marks an unparseable hex code - leave those out
+            val ids = (0 until swatches.size).filter { swatches.argbAt(it) != 0 }.toIntArray()
+            val lab = FloatArray(ids.size * 3)
+            ids.forEachIndexed { i, swatch -> argbToLab(swatches.argbAt(swatch), lab, i * 3) }
+
+            val order = IntArray(ids.size) { it }  // positions into ids / lab, rearranged into tree order
+            arrange(order, lab, 0, order.size, 0)
+
+            val points = FloatArray(order.size * 3)
+            order.forEachIndexed { node, i -> lab.copyInto(points, node * 3, i * 3, i * 3 + 3) }
+            return SwatchIndex(points, IntArray(order.size) { ids[order[it]] })
+        }
+
+        // Puts the median along axis in the middle of [lo, hi), smaller values left, then recurses
+        private fun arrange(order: IntArray, lab: FloatArray, lo: Int, hi: Int, axis: Int) {
+            if (hi - lo <= 1) return
+            val mid = (lo + hi) ushr 1
+            select(order, lab, lo, hi - 1, mid, axis)
+            val next = (axis + 1) % 3
+            arrange(order, lab, lo, mid, next)
+            arrange(order, lab, mid + 1, hi, next)
+        }
+
+        // Quickselect (Hoare partition) until order[k] holds the k-th smallest coordinate of [left, right]
+        private fun select(order: IntArray, lab: FloatArray, left: Int, right: Int, k: Int, axis: Int) {
+            var l = left
+            var r = right
+            while (l < r) {
+                val pivot = lab[order[(l + r) ushr 1] * 3 + axis]
+                var i = l
+                var j = r
+                while (i <= j) {
+                    while (lab[order[i] * 3 + axis] < pivot) i++
+                    while (lab[order[j] * 3 + axis] > pivot) j--
+                    if (i <= j) {
+                        val t = order[i]; order[i] = order[j]; order[j] = t
+                        i++
+                        j--
+                    }
+                }
+                if (k <= j) r = j else if (k >= i) l = i else return
+            }
+        }
+    }
+}
+
+// A catalog swatch close to the requested color
+class SwatchMatch(
+    val product: Product,
+    val color: ProductColor,
+    val distance: Float  // CIE76 delta E; below ~2.3 the difference is hard to see
+)
+
+// The k best so far, kept sorted by squared distance (k is small, so insertion beats a heap).
+// Also used by ShadeMatcher to keep the top matches per shade and category.
+internal class BoundedNeighbors(private val k: Int) {
+    private val swatches = IntArray(k)
+    private val distances = FloatArray(k)
+    private var size = 0
+
+    fun worst(): Float = if (size < k) Float.POSITIVE_INFINITY else distances[size - 1]
+
+    fun offer(swatch: Int, distance: Float) {
+        if (size == k && distance >= distances[size - 1]) return
+        var i = if (size < k) size++ else size - 1
+        while (i > 0 && distances[i - 1] > distance) {
+            distances[i] = distances[i - 1]
+            swatches[i] = swatches[i - 1]
+            i--
+        }
+        distances[i] = distance
+        swatches[i] = swatch
+    }
+
+    // Combine the best of two partial results (e.g. from different chunks of the catalog)
+    fun mergeFrom(other: BoundedNeighbors) {
+        for (i in 0 until other.size) offer(other.swatches[i], other.distances[i])
+    }
+
+    fun toList(): List<SwatchIndex.Neighbor> =
+        List(size) { SwatchIndex.Neighbor(swatches[it], Math.sqrt(distances[it].toDouble()).toFloat()) }
+}
@@ -0,0 +1,211 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+
+/*
+ * TrigramIndex.kt
+ * PURPOSE: Typo-tolerant search over brand and product names ("maybeline", "loreal", "revlom")
+ * - Names are normalized (lowercase, only letters / digits, so "l'oreal" == "loreal") and cut into
+ *   trigrams of each word padded with spaces ("  nyx " -> "  n", " ny", "nyx", "yx ")
+ * - Built in one pass into a CSR layout: sorted trigram keys (LongArray), offsets (IntArray) and
+ *   one postings IntArray of catalog positions - no per-trigram objects once built
+ * - search(): every position sharing enough trigrams with the query is a candidate, the best
+ *   MAX_CANDIDATES are re-ranked by edit distance to the closest word (banded Levenshtein, so a
+ *   comparison gives up as soon as it can't stay within the allowed distance)
+ */
+class TrigramIndex private constructor(
+    private val keys: LongArray,
+    private val offsets: IntArray,
+    private val postings: IntArray,
+    private val size: Int
+) {
+
+    // Catalog positions, closest match first; products is the list the index was built from
+    fun search(query: String, products: List<Product>): IntArray {
+        val words = normalizedWords(query)
+        if (words.isEmpty() || size == 0) return IntArray(0)
+
+        // Candidate generation: count shared trigrams per position
+        val queryGrams = words.flatMap { trigrams(it).toList() }.distinct()
+        val hits = IntArray(size)
+        val touched = IntArrayBuilder()
+        for (gram in queryGrams) {
+            val k = keys.binarySearch(gram)
+            if (k < 0) continue
+            for (i in offsets[k] until offsets[k + 1]) {
+                val position = postings[i]
+                if (hits[position]++ == 0) touched.add(position)
+            }
+        }
+        val minShared = maxOf(1, (queryGrams.size * MIN_SHARED_FRACTION).toInt())
+        val candidates = touched.toArray()
+            .filter { hits[it] >= minShared }
+            .sortedByDescending { hits[it] }
+            .take(MAX_CANDIDATES)
+
+        // Re-rank: every query word must be within its edit budget of some word in brand + name
+        val ranked = ArrayList<Pair<Int, Int>>(candidates.size)
+        for (position in candidates) {
+            val product = products[position]
+            val targetWords = normalizedWords(product.brand.orEmpty()) + normalizedWords(product.name.orEmpty())
+            var total = 0
+            for (word in words) {
+                val budget = maxDistance(word)
+                val best = targetWords.minOfOrNull { boundedLevenshtein(word, it, budget) } ?: Int.MAX_VALUE
+                if (best > budget) {
+                    total = -1
+                    break
+                }
+                total += best
+            }
+            if (total >= 0) ranked.add(position to total)
+        }
+        // Fewest edits first, then most shared trigrams, then catalog order
+        return ranked.sortedWith(compareBy<Pair<Int, Int>>({ it.second }, { -hits[it.first] }, { it.first }))
+            .map { it.first }
+            .toIntArray()
+    }
+
+    // Same index over the catalog after a delta sync: postings are renumbered, only changed products are re-tokenized
+    fun applying(delta: CatalogDelta): TrigramIndex {
+        val lists = HashMap<Long, IntArrayBuilder>(keys.size * 2)
+        keys.forEachIndexed { k, gram ->
+            val list = IntArrayBuilder()
+            for (i in offsets[k] until offsets[k + 1]) {
+                val position = delta.carried(postings[i])
+                if (position >= 0) list.add(position)
+            }
+            lists[gram] = list
+        }
+        val added = HashMap<Long, IntArrayBuilder>()
+        for (position in delta.changed) addProduct(added, delta.products[position], position)
+        for ((gram, list) in added) {
+            val existing = lists[gram]
+            if (existing == null) {
+                lists[gram] = list
+            } else {
+                // Carried and changed positions never overlap, re-sort to keep postings ascending
+                existing.addAll(list)
+                existing.sort()
+            }
+        }
+        return fromLists(lists, delta.size)
+    }
+
+    companion object {
+        val EMPTY = TrigramIndex(LongArray(0), IntArray(1), IntArray(0), 0)
+
+        private const val MAX_CANDIDATES = 200
+        private const val MIN_SHARED_FRACTION = 0.3
+
+        fun build(products: List<Product>): TrigramIndex {
+            val lists = HashMap<Long, IntArrayBuilder>()
+            products.forEachIndexed { position, product -> addProduct(lists, product, position) }
+            return fromLists(lists, products.size)
+        }
+
+        // Positions must arrive in ascending order
+        private fun addProduct(lists: HashMap<Long, IntArrayBuilder>, product: Product, position: Int) {
+            val words = normalizedWords(product.brand.orEmpty()) + normalizedWords(product.name.orEmpty())
+            for (word in words) {
+                for (gram in trigrams(word)) {
+                    val list = lists.getOrPut(gram) { IntArrayBuilder() }
+                    // Positions arrive in order, so a repeat within one product is always the last entry
+                    if (list.last() != position) list.add(position)
+                }
+            }
+        }
+
+        // Trigrams left without postings (after a delta sync) are dropped
+        private fun fromLists(lists: Map<Long, IntArrayBuilder>, size: Int): TrigramIndex {
+            val keys = lists.filterValues { it.size > 0 }.keys.toLongArray().also { it.sort() }
+            val offsets = IntArray(keys.size + 1)
+            keys.forEachIndexed { i, key -> offsets[i + 1] = offsets[i] + lists.getValue(key).size }
+            val postings = IntArray(offsets[keys.size])
+            keys.forEachIndexed { i, key -> lists.getValue(key).copyInto(postings, offsets[i]) }
+            return TrigramIndex(keys, offsets, postings, size)
+        }
+
+        fun normalizedWords(text: String): List<String> =
+            text.lowercase()
+                .replace("'", "")  // l'oreal -> loreal
+                .split(Regex("[^\\p{L}\\p{N}]+"))
+                .filter { it.isNotEmpty() }
+
+        // Two leading spaces and one trailing, so short words and word starts still produce trigrams
+        private fun trigrams(word: String): LongArray {
+            val padded = "  $word "
+            return LongArray(padded.length - 2) { i ->
+                (padded[i].code.toLong() shl 42) or (padded[i + 1].code.toLong() shl 21) or padded[i + 2].code.toLong()
+            }
+        }
+
+        // Allowed typos grow with word length
+        private fun maxDistance(word: String): Int = when {
+            word.length <= 3 -> 0
+            word.length <= 5 -> 1
+            word.length <= 9 -> 2
+            else -> 3
+        }
+
+        // Levenshtein distance restricted to a diagonal band of width 2 * max + 1; returns max + 1
+        // as soon as every cell in a row exceeds max. A query word may also match a word's prefix,
+        // so "maybel" is distance 0 from "maybelline".
+        fun boundedLevenshtein(query: String, target: String, max: Int): Int {
+            val n = query.length
+            val m = target.length
+            if (n - m > max) return max + 1
+            val inf = max + 1
+            var previous = IntArray(m + 1) { if (it <= max) it else inf }
+            var current = IntArray(m + 1)
+            var best = if (n == 0) 0 else inf
+            for (i in 1..n) {
+                current.fill(inf)
+                current[0] = if (i <= max) i else inf
+                var rowMin = current[0]
+                val from = maxOf(1, i - max)
+                val to = minOf(m, i + max)
+                for (j in from..to) {
+                    val cost = if (query[i - 1] == target[j - 1]) 0 else 1
+                    val value = minOf(previous[j - 1] + cost, previous[j] + 1, current[j - 1] + 1)
+                    current[j] = minOf(value, inf)
+                    if (current[j] < rowMin) rowMin = current[j]
+                }
+                if (rowMin > max) return inf
+                if (i == n) best = (from..to).minOfOrNull { current[it] } ?: inf  // prefix match
+                val swap = previous
+                previous = current
+                current = swap
+            }
+            return minOf(best, inf)
+        }
+    }
+}
+
+// Growable IntArray, so building postings doesn't box every position
+internal class IntArrayBuilder {
+    private var data = IntArray(4)
+    var size = 0
+        private set
+
+    fun add(value: Int) {
+        if (size == data.size) data = data.copyOf(size * 2)
+        data[size++] = value
+    }
+
+    fun last(): Int = if (size == 0) -1 else data[size - 1]
+
+    fun addAll(other: IntArrayBuilder) {
+        for (i in 0 until other.size) add(other.data[i])
+    }
+
+    fun sort() {
+        data.sort(0, size)
+    }
+
+    fun copyInto(destination: IntArray, offset: Int) {
+        data.copyInto(destination, offset, 0, size)
+    }
+
+    fun toArray(): IntArray = data.copyOf(size)
+}
@@ -1,13 +1,16 @@
 package com.example.beautyapp.data.weather
 
 import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
 
+@JsonClass(generateAdapter = true)
 data class WeatherResponse(
     val main: Main,
     val weather: List<Weather>,
     val name: String
 )
 
+@JsonClass(generateAdapter = true)
 data class Main(
     val temp: Double,
     @Json(name = "feels_like") val feelsLike: Double,
@@ -16,6 +19,7 @@ data class Main(
     val humidity: Int
 )
 
+@JsonClass(generateAdapter = true)
 data class Weather(
     val description: String,
     val icon: String
@@ -0,0 +1,146 @@
+package com.example.beautyapp.network
+
+import android.content.Context
+import android.util.Log
+import okhttp3.Cache
+import okhttp3.CacheControl
+import okhttp3.Interceptor
+import okhttp3.OkHttpClient
+import okhttp3.Response
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/*
+ * HttpCache.kt
+ * PURPOSE: One on-disk HTTP cache shared by every Retrofit client in the app
+ * - CachePolicyInterceptor sets a freshness lifetime per endpoint (the APIs send none or max-age=0)
+ *   but leaves ETag / Last-Modified alone, so once an entry expires OkHttp revalidates it with
+ *   If-None-Match / If-Modified-Since and a 304 only costs the headers
+ * - OfflineCacheInterceptor falls back to whatever is cached (even if stale) when the network fails
+ * - CacheStats counts hit / revalidate / miss / offline per endpoint
+ * install() must run before the first request (BeautyApplication.onCreate does it).
+ */
+object HttpCache {
+    private const val TAG = "HttpCache"
+    private const val CACHE_DIR = "http_cache"
+    private const val CACHE_SIZE_BYTES = 20L * 1024 * 1024  // 20 MB - products.json alone is ~2 MB
+
+    @Volatile
+    var cache: Cache? = null
+        private set
+
+    val stats = CacheStats()
+
+    fun install(context: Context) {
+        if (cache != null) return
+        synchronized(this) {
+            if (cache == null) {
+                cache = Cache(File(context.applicationContext.cacheDir, CACHE_DIR), CACHE_SIZE_BYTES)
+                Log.d(TAG, "HTTP cache installed (${CACHE_SIZE_BYTES / (1024 * 1024)} MB)")
+            }
+        }
+    }
+
+    // Adds the shared cache and the cache interceptors to a client builder
+    fun OkHttpClient.Builder.withHttpCache(): OkHttpClient.Builder = apply {
+        cache?.let { cache(it) }
+        addInterceptor(OfflineCacheInterceptor)
+        addNetworkInterceptor(CachePolicyInterceptor)
+    }
+}
+
+// How long a response may be served from the cache without asking the server again
+enum class CachePolicy(val pathMarker: String, val maxAgeSeconds: Long) {
+    MAKEUP_PRODUCTS("api/v1/products", TimeUnit.HOURS.toSeconds(1)),
+    WEATHER("data/2.5/weather", TimeUnit.MINUTES.toSeconds(10)),
+    PLACES("place/nearbysearch", TimeUnit.MINUTES.toSeconds(15));
+
+    companion object {
+        fun forPath(path: String): CachePolicy? = values().firstOrNull { path.contains(it.pathMarker) }
+    }
+}
+
+// Network interceptor: rewrites Cache-Control on the way into the cache
+object CachePolicyInterceptor : Interceptor {
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+        val response = chain.proceed(request)
+        val policy = CachePolicy.forPath(request.url.encodedPath) ?: return response
+        if (request.method != "GET" || !response.isSuccessful) return response
+
+        return response.newBuilder()
+            .removeHeader("Pragma")
+            .header("Cache-Control", "public, max-age=${policy.maxAgeSeconds}")
+            .build()
+    }
+}
+
+// Application interceptor: records what the cache did and serves stale data when offline
+object OfflineCacheInterceptor : Interceptor {
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+        // Only GETs are cacheable - preconnect HEADs and the like pass straight through
+        if (request.method != "GET") return chain.proceed(request)
+        val endpoint = CacheStats.endpointKey(request.url.host, request.url.encodedPath)
+
+        val response = try {
+            chain.proceed(request)
+        } catch (e: IOException) {
+            val cached = chain.proceed(
+                request.newBuilder().cacheControl(CacheControl.FORCE_CACHE).build()
+            )
+            // FORCE_CACHE answers 504 when nothing is stored - surface the original failure instead
+            if (cached.code == 504) {
+                cached.close()
+                throw e
+            }
+            HttpCache.stats.record(endpoint, CacheStats.Outcome.OFFLINE)
+            return cached
+        }
+
+        val outcome = when {
+            response.cacheResponse != null && response.networkResponse == null -> CacheStats.Outcome.HIT
+            response.cacheResponse != null -> CacheStats.Outcome.REVALIDATED
+            else -> CacheStats.Outcome.MISS
+        }
+        HttpCache.stats.record(endpoint, outcome)
+        return response
+    }
+}
+
+class CacheStats {
+
+    enum class Outcome { HIT, REVALIDATED, MISS, OFFLINE }
+
+    class Counters {
+        val hits = AtomicInteger()
+        val revalidated = AtomicInteger()
+        val misses = AtomicInteger()
+        val offline = AtomicInteger()
+
+        override fun toString(): String =
+            "hit=${hits.get()} revalidate=${revalidated.get()} miss=${misses.get()} offline=${offline.get()}"
+    }
+
+    private val byEndpoint = ConcurrentHashMap<String, Counters>()
+
+    fun record(endpoint: String, outcome: Outcome) {
+        val counters = byEndpoint.getOrPut(endpoint) { Counters() }
+        when (outcome) {
+            Outcome.HIT -> counters.hits.incrementAndGet()
+            Outcome.REVALIDATED -> counters.revalidated.incrementAndGet()
+            Outcome.MISS -> counters.misses.incrementAndGet()
+            Outcome.OFFLINE -> counters.offline.incrementAndGet()
+        }
+        Log.d("HttpCache", "$endpoint -> $outcome ($counters)")
+    }
+
+    fun snapshot(): Map<String, Counters> = byEndpoint.toMap()
+
+    companion object {
+        fun endpointKey(host: String, path: String): String = host + path
+    }
+}
@@ -1,23 +1,40 @@
 package com.example.beautyapp.network
 
 import com.example.beautyapp.data.Product
-import retrofit2.Retrofit
-import retrofit2.converter.gson.GsonConverterFactory
+import okhttp3.ResponseBody
+import retrofit2.Response
+import retrofit2.converter.moshi.MoshiConverterFactory
 import retrofit2.http.GET
+import retrofit2.http.Query
+import retrofit2.http.Streaming
 
 interface MakeupApiService {
+    // Null parameters are left out of the URL, so getProducts() is still the full catalog
     @GET("api/v1/products.json")
-    suspend fun getProducts(): List<Product>
+    suspend fun getProducts(
+        @Query("brand") brand: String? = null,
+        @Query("product_type") productType: String? = null
+    ): List<Product>
+
+    // Same endpoint, but the body is handed over unread so ProductStreamParser can parse it incrementally.
+    // The full Response is kept so the sync engine can read the ETag / Last-Modified validator.
+    @Streaming
+    @GET("api/v1/products.json")
+    suspend fun getProductsStream(): Response<ResponseBody>
 }
 
 object MakeupApi {
-    private const val BASE_URL = "https://makeup-api.herokuapp.com/"
-    
-    private val retrofit = Retrofit.Builder()
-        .baseUrl(BASE_URL)
-        .addConverterFactory(GsonConverterFactory.create())
-        .build()
-    
+    // product_type values the API documents - lets the filter sheet offer types before the catalog has loaded
+    val KNOWN_PRODUCT_TYPES = listOf(
+        "blush", "bronzer", "eyebrow", "eyeliner", "eyeshadow",
+        "foundation", "lip_liner", "lipstick", "mascara", "nail_polish"
+    )
+
+    private val retrofit = NetworkModule.retrofit(
+        NetworkModule.MAKEUP_BASE_URL,
+        MoshiConverterFactory.create(NetworkModule.moshi)
+    )
+
     val service: MakeupApiService by lazy {
         retrofit.create(MakeupApiService::class.java)
     }
@@ -0,0 +1,97 @@
+package com.example.beautyapp.network
+
+import android.util.Log
+import com.example.beautyapp.network.HttpCache.withHttpCache
+import com.squareup.moshi.Moshi
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.ConnectionPool
+import okhttp3.Dispatcher
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import retrofit2.Converter
+import retrofit2.Retrofit
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+/*
+ * NetworkModule.kt
+ * PURPOSE: The single HTTP stack for the whole app
+ * - One OkHttpClient, so Makeup, Weather and Places share one connection pool, one dispatcher
+ *   thread pool and one TLS session cache
+ * - HTTP/2 is preferred, so parallel requests to the same host multiplex over one socket
+ * - The dispatcher caps concurrent calls per host so a burst can't open a pile of sockets
+ * - preconnect() opens connections to the hosts we know we'll hit right after launch
+ * - ResilienceInterceptor adds retries, per-endpoint timeouts and a circuit breaker (see Resilience.kt);
+ *   the 30s timeouts below only apply to hosts without a LatencyBudget
+ * Services get their Retrofit instance from retrofit() instead of building their own client.
+ */
+object NetworkModule {
+    private const val TAG = "NetworkModule"
+
+    const val MAKEUP_BASE_URL = "https://makeup-api.herokuapp.com/"
+    const val WEATHER_BASE_URL = "https://api.openweathermap.org/data/2.5/"
+    const val PLACES_BASE_URL = "https://maps.googleapis.com/maps/api/"
+
+    // Hosts worth warming up at launch (Places is only used from the cart, so it's left cold)
+    private val PRECONNECT_URLS = listOf(
+        "https://makeup-api.herokuapp.com/",
+        "https://api.openweathermap.org/"
+    )
+
+    private val dispatcher = Dispatcher().apply {
+        maxRequests = 16
+        maxRequestsPerHost = 4
+    }
+
+    // A handful of idle sockets is plenty for three hosts; keep them long enough to span tab switches
+    private val connectionPool = ConnectionPool(6, 5, TimeUnit.MINUTES)
+
+    val resilience = ResilienceInterceptor()
+
+    val okHttpClient: OkHttpClient by lazy {
+        OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(connectionPool)
+            .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .writeTimeout(30, TimeUnit.SECONDS)
+            .retryOnConnectionFailure(true)
+            .withHttpCache()
+            .addInterceptor(resilience)  // inside the offline fallback, so an open circuit is served from cache
+            .build()
+    }
+
+    // Every API model is @JsonClass(generateAdapter = true), so no reflective factory is needed
+    val moshi: Moshi by lazy { newMoshi() }
+
+    // How moshi is configured; tests build fresh ones to measure a cold adapter lookup
+    fun newMoshi(): Moshi = Moshi.Builder().build()
+
+    fun retrofit(baseUrl: String, converterFactory: Converter.Factory): Retrofit =
+        Retrofit.Builder()
+            .baseUrl(baseUrl)
+            .client(okHttpClient)
+            .addConverterFactory(converterFactory)
+            .build()
+
+    // Fire-and-forget HEAD requests: DNS, TCP and TLS are done before the first real call needs them
+    fun preconnect() {
+        PRECONNECT_URLS.forEach { url ->
+            val request = Request.Builder().url(url).head().build()
+            okHttpClient.newCall(request).enqueue(object : Callback {
+                override fun onResponse(call: Call, response: Response) {
+                    response.close()
+                    Log.d(TAG, "Preconnected to ${call.request().url.host} over ${response.protocol}")
+                }
+
+                override fun onFailure(call: Call, e: IOException) {
+                    Log.d(TAG, "Preconnect to ${call.request().url.host} failed: ${e.message}")
+                }
+            })
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.beautyapp.network
+
+import com.example.beautyapp.data.Product
+import com.squareup.moshi.JsonReader
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import okhttp3.ResponseBody
+
+/*
+ * ProductStreamParser.kt
+ * PURPOSE: Reads the products.json array one product at a time instead of letting the
+ * converter buffer and build the whole payload first.
+ * - Only the current product and the current batch are held by the parser, so its memory use
+ *   does not grow with the size of the response
+ * - Batches are emitted as soon as they are full so the grid can render the first rows
+ *   while the rest of the body is still downloading
+ */
+object ProductStreamParser {
+
+    const val DEFAULT_BATCH_SIZE = 40
+
+    // Resolves to the generated ProductJsonAdapter
+    private val productAdapter = NetworkModule.moshi.adapter(Product::class.java)
+
+    fun parse(body: ResponseBody, batchSize: Int = DEFAULT_BATCH_SIZE): Flow<List<Product>> = flow {
+        body.use {
+            JsonReader.of(body.source()).use { reader ->
+                reader.beginArray()
+                var batch = ArrayList<Product>(batchSize)
+                while (reader.hasNext()) {
+                    batch.add(productAdapter.fromJson(reader) ?: continue)
+                    if (batch.size == batchSize) {
+                        emit(batch)
+                        batch = ArrayList(batchSize)
+                    }
+                }
+                reader.endArray()
+                if (batch.isNotEmpty()) emit(batch)
+            }
+        }
+    }.flowOn(Dispatchers.IO)
+}
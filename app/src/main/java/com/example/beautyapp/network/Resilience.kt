@@ -0,0 +1,256 @@
+package com.example.beautyapp.network
+
+import android.util.Log
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.selects.select
+import kotlinx.coroutines.withTimeoutOrNull
+import okhttp3.Interceptor
+import okhttp3.Response
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/*
+ * Resilience.kt
+ * PURPOSE: Keeps a slow or cold backend (makeup-api is a free Heroku dyno) from stalling the app
+ * - LatencyBudget sets per endpoint timeouts, a total time budget, the retry count and when to hedge
+ * - ResilienceInterceptor retries failed GETs (IO errors, 5xx, 429) with jittered exponential backoff,
+ *   but never past the endpoint's total budget or the call timeout. The backoff blocks an OkHttp
+ *   thread, so it waits in short slices and gives up as soon as the call is cancelled
+ * - CircuitBreaker (one per host) opens after repeated failures; while open, calls fail at once with
+ *   CircuitOpenException and OfflineCacheInterceptor answers from the HTTP cache instead
+ * - hedged() fires a second copy of a small request when the first one is slower than hedgeAfterMillis
+ *   and keeps whichever answers first
+ * Everything takes its clock / sleeper / random source as parameters so it can be driven against a
+ * local fault-injecting server (MockWebServer) without real waiting.
+ */
+
+// Per-endpoint latency budget. hedgeAfterMillis only applies to calls made through Resilience.hedged()
+// (null = never hedge): the small server-filtered product slices are, the 2 MB catalog download on the
+// same path isn't
+enum class LatencyBudget(
+    val pathMarker: String,
+    val connectTimeoutMillis: Int,
+    val readTimeoutMillis: Int,
+    val totalBudgetMillis: Long,
+    val maxAttempts: Int,
+    val hedgeAfterMillis: Long?
+) {
+    MAKEUP_PRODUCTS("api/v1/products", 8_000, 15_000, 40_000, 3, 2_500),
+    WEATHER("data/2.5/weather", 5_000, 8_000, 15_000, 3, 1_500),
+    PLACES("place/nearbysearch", 5_000, 10_000, 20_000, 2, null);
+
+    companion object {
+        fun forPath(path: String): LatencyBudget? = values().firstOrNull { path.contains(it.pathMarker) }
+    }
+}
+
+class CircuitOpenException(host: String) : IOException("Circuit open for $host, using cached data")
+
+class CircuitBreaker(
+    private val failureThreshold: Int = 3,
+    private val openForMillis: Long = TimeUnit.SECONDS.toMillis(30),
+    private val halfOpenMaxCalls: Int = 3,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+    enum class State { CLOSED, OPEN, HALF_OPEN }
+
+    private var state = State.CLOSED
+    private var consecutiveFailures = 0
+    private var openedAt = 0L
+    private var halfOpenedAt = 0L
+    private var trialsInFlight = 0
+
+    // OPEN lets nothing through until the cool-down ends. HALF_OPEN then lets up to halfOpenMaxCalls
+    // trial calls through at once instead of failing everything behind one slow trial; a success
+    // closes the breaker, a failure opens it again. Trials that never report back stop counting
+    // after another openForMillis.
+    @Synchronized
+    fun allowRequest(): Boolean = when (state) {
+        State.CLOSED -> true
+        State.HALF_OPEN -> {
+            if (clock() - halfOpenedAt >= openForMillis) {
+                halfOpenedAt = clock()
+                trialsInFlight = 0
+            }
+            takeTrial()
+        }
+        State.OPEN -> if (clock() - openedAt >= openForMillis) {
+            state = State.HALF_OPEN
+            halfOpenedAt = clock()
+            trialsInFlight = 0
+            takeTrial()
+        } else {
+            false
+        }
+    }
+
+    private fun takeTrial(): Boolean {
+        if (trialsInFlight >= halfOpenMaxCalls) return false
+        trialsInFlight++
+        return true
+    }
+
+    @Synchronized
+    fun onSuccess() {
+        state = State.CLOSED
+        consecutiveFailures = 0
+        trialsInFlight = 0
+    }
+
+    // The call was cancelled by its caller (a hedge that lost, a fetch replaced by a newer one): that
+    // says nothing about the host, only a trial slot it held is given back
+    @Synchronized
+    fun onCancelled() {
+        if (state == State.HALF_OPEN && trialsInFlight > 0) trialsInFlight--
+    }
+
+    @Synchronized
+    fun onFailure() {
+        consecutiveFailures++
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN
+            openedAt = clock()
+            trialsInFlight = 0
+        }
+    }
+
+    @Synchronized
+    fun state(): State = state
+}
+
+// Application interceptor, added after OfflineCacheInterceptor so its cache fallback wraps this one
+class ResilienceInterceptor(
+    private val baseBackoffMillis: Long = 300,
+    private val maxBackoffMillis: Long = 4_000,
+    private val clock: () -> Long = System::currentTimeMillis,
+    private val sleeper: (Long) -> Unit = Thread::sleep,
+    private val random: Random = Random.Default,
+    private val breakerFactory: () -> CircuitBreaker = { CircuitBreaker() }
+) : Interceptor {
+
+    private val breakers = ConcurrentHashMap<String, CircuitBreaker>()
+
+    fun breakerFor(host: String): CircuitBreaker = breakers.getOrPut(host) { breakerFactory() }
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+        // Only-if-cached lookups (the offline fallback) never touch the network, let them through
+        if (request.method != "GET" || request.cacheControl.onlyIfCached) return chain.proceed(request)
+
+        val host = request.url.host
+        val budget = LatencyBudget.forPath(request.url.encodedPath)
+        val breaker = breakerFor(host)
+        if (!breaker.allowRequest()) throw CircuitOpenException(host)
+
+        val timedChain = budget?.let {
+            chain.withConnectTimeout(it.connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .withReadTimeout(it.readTimeoutMillis, TimeUnit.MILLISECONDS)
+        } ?: chain
+        val maxAttempts = budget?.maxAttempts ?: 1
+        // Retries (and the waits between them) end at the budget or the call timeout, whichever is first
+        val callTimeoutMillis = TimeUnit.NANOSECONDS.toMillis(chain.call().timeout().timeoutNanos())
+        val deadline = clock() + minOf(
+            budget?.totalBudgetMillis ?: Long.MAX_VALUE / 2,
+            if (callTimeoutMillis > 0) callTimeoutMillis else Long.MAX_VALUE / 2
+        )
+
+        var attempt = 0
+        while (true) {
+            attempt++
+            val response = try {
+                timedChain.proceed(request)
+            } catch (e: IOException) {
+                if (chain.call().isCanceled()) {
+                    breaker.onCancelled()
+                    throw e
+                }
+                breaker.onFailure()
+                if (!shouldRetry(chain, attempt, maxAttempts, deadline, breaker)) throw e
+                Log.d(TAG, "$host attempt $attempt failed (${e.message}), retrying")
+                backoff(chain, attempt, deadline)
+                continue
+            }
+
+            if (!isRetryable(response.code)) {
+                breaker.onSuccess()
+                return response
+            }
+            breaker.onFailure()
+            if (!shouldRetry(chain, attempt, maxAttempts, deadline, breaker)) return response
+            Log.d(TAG, "$host attempt $attempt answered ${response.code}, retrying")
+            response.close()
+            backoff(chain, attempt, deadline)
+        }
+    }
+
+    private fun shouldRetry(
+        chain: Interceptor.Chain,
+        attempt: Int,
+        maxAttempts: Int,
+        deadline: Long,
+        breaker: CircuitBreaker
+    ): Boolean =
+        attempt < maxAttempts &&
+            !chain.call().isCanceled() &&
+            breaker.state() == CircuitBreaker.State.CLOSED &&
+            clock() + backoffCap(attempt) < deadline
+
+    // Full jitter: uniform in [0, min(cap, base * 2^(attempt-1))], never past the deadline. Sleeps in
+    // slices so a cancelled call (e.g. its coroutine went away) stops waiting within one slice.
+    private fun backoff(chain: Interceptor.Chain, attempt: Int, deadline: Long) {
+        var remaining = minOf(random.nextLong(backoffCap(attempt) + 1), deadline - clock())
+        while (remaining > 0) {
+            if (chain.call().isCanceled()) break
+            val slice = minOf(remaining, SLEEP_SLICE_MILLIS)
+            sleeper(slice)
+            remaining -= slice
+        }
+        if (chain.call().isCanceled()) throw IOException("Canceled")
+    }
+
+    private fun backoffCap(attempt: Int): Long =
+        minOf(maxBackoffMillis, baseBackoffMillis shl (attempt - 1).coerceAtMost(16))
+
+    private fun isRetryable(code: Int): Boolean = code == 429 || code in 500..599
+
+    companion object {
+        private const val TAG = "Resilience"
+        private const val SLEEP_SLICE_MILLIS = 100L
+    }
+}
+
+object Resilience {
+    private const val TAG = "Resilience"
+
+    // Run block; if it hasn't answered after hedgeAfterMillis, start a second copy and take the first result.
+    // A copy that fails doesn't win - its error is only thrown when both copies fail.
+    suspend fun <T> hedged(hedgeAfterMillis: Long?, block: suspend () -> T): T {
+        if (hedgeAfterMillis == null) return block()
+        return coroutineScope {
+            val primary = async { runCatching { block() } }
+            val early = withTimeoutOrNull(hedgeAfterMillis) { primary.await() }
+            if (early != null) return@coroutineScope early.getOrThrow()
+
+            Log.d(TAG, "No answer after ${hedgeAfterMillis}ms, sending a hedged request")
+            val backup = async { runCatching { block() } }
+            val first = select<Result<T>> {
+                primary.onAwait { it }
+                backup.onAwait { it }
+            }
+            val result = if (first.isSuccess) {
+                first
+            } else {
+                // One copy failed - the other one is still our best chance
+                if (primary.isCompleted) backup.await() else primary.await()
+            }
+            primary.cancel()
+            backup.cancel()
+            result.exceptionOrNull()?.let { if (it is CancellationException) throw it }
+            result.getOrThrow()
+        }
+    }
+}
@@ -2,9 +2,6 @@
 package com.example.beautyapp.network
 
 import com.squareup.moshi.JsonClass
-import com.squareup.moshi.Moshi
-import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
-import retrofit2.Retrofit
 import retrofit2.converter.moshi.MoshiConverterFactory
 import retrofit2.http.GET
 import retrofit2.http.Query
@@ -59,16 +56,10 @@ interface PlacesApiService {
 
 
 object RetrofitClient {
-    private const val BASE_URL = "https://maps.googleapis.com/maps/api/"
-
-    private val moshi = Moshi.Builder()
-        .add(KotlinJsonAdapterFactory())
-        .build()
-
-    private val retrofit = Retrofit.Builder()
-        .baseUrl(BASE_URL)
-        .addConverterFactory(MoshiConverterFactory.create(moshi))
-        .build()
+    private val retrofit = NetworkModule.retrofit(
+        NetworkModule.PLACES_BASE_URL,
+        MoshiConverterFactory.create(NetworkModule.moshi)
+    )
 
     val placesApiService: PlacesApiService by lazy {
         retrofit.create(PlacesApiService::class.java)
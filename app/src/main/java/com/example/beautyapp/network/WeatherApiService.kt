@@ -5,8 +5,6 @@ import retrofit2.Retrofit
 import retrofit2.converter.moshi.MoshiConverterFactory
 import retrofit2.http.GET
 import retrofit2.http.Query
-import com.squareup.moshi.Moshi
-import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
 
 interface WeatherApiService {
     @GET("weather")
@@ -18,16 +16,10 @@ interface WeatherApiService {
 }
 
 object WeatherApiClient {
-    private const val BASE_URL = "https://api.openweathermap.org/data/2.5/"
-
-    private val moshi = Moshi.Builder()
-        .add(KotlinJsonAdapterFactory())
-        .build()
-
-    val retrofit: Retrofit = Retrofit.Builder()
-        .baseUrl(BASE_URL)
-        .addConverterFactory(MoshiConverterFactory.create(moshi))
-        .build()
+    val retrofit: Retrofit = NetworkModule.retrofit(
+        NetworkModule.WEATHER_BASE_URL,
+        MoshiConverterFactory.create(NetworkModule.moshi)
+    )
 
     val apiService: WeatherApiService = retrofit.create(WeatherApiService::class.java)
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.example.beautyapp.ui.components
+
+import androidx.compose.foundation.background
+import androidx.compose.foundation.border
+import androidx.compose.foundation.layout.*
+import androidx.compose.foundation.shape.CircleShape
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.material.icons.Icons
+import androidx.compose.material.icons.filled.AddShoppingCart
+import androidx.compose.material.icons.filled.Favorite
+import androidx.compose.material.icons.outlined.FavoriteBorder
+import androidx.compose.material3.*
+import androidx.compose.runtime.Composable
+import androidx.compose.ui.Alignment
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.draw.clip
+import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.layout.ContentScale
+import androidx.compose.ui.text.font.FontWeight
+import androidx.compose.ui.unit.dp
+import coil.compose.AsyncImage
+import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.data.catalog.ShadeMatch
+import com.example.beautyapp.data.catalog.ShadeMatchCategory
+import com.example.beautyapp.utils.parseHexColor
+
+/* This file CatalogShadeMatchSection.kt shows the Makeup API products whose swatch is closest to the
+* selected shade (precomputed in shade_matches), grouped by category. Unlike the makeup.db
+* recommendations these can go into the cart with the matching swatch selected.
+ */
+
+@Composable
+fun CatalogShadeMatchSection(
+    matches: Map<ShadeMatchCategory, List<ShadeMatch>>,
+    likedProductIds: Set<Int>,
+    onToggleLike: (Int) -> Unit,
+    onAddToCart: (Int, ProductColor?) -> Unit
+) {
+    if (matches.isEmpty()) return
+
+    Text(
+        text = "From Our Catalog",
+        style = MaterialTheme.typography.titleLarge
+    )
+
+    matches.forEach { (category, categoryMatches) ->
+        Spacer(Modifier.height(12.dp))
+        Text(
+            text = category.label,
+            style = MaterialTheme.typography.titleMedium
+        )
+        Spacer(Modifier.height(4.dp))
+        Column(verticalArrangement = Arrangement.spacedBy(8.dp)) {
+            categoryMatches.forEach { match ->
+                CatalogShadeMatchCard(
+                    match = match,
+                    isLiked = match.productId in likedProductIds,
+                    onToggleLike = { onToggleLike(match.productId) },
+                    onAddToCart = { onAddToCart(match.productId, match.productColor) }
+                )
+            }
+        }
+    }
+}
+
+@Composable
+private fun CatalogShadeMatchCard(
+    match: ShadeMatch,
+    isLiked: Boolean,
+    onToggleLike: () -> Unit,
+    onAddToCart: () -> Unit
+) {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(vertical = 6.dp),
+        shape = RoundedCornerShape(16.dp),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant.copy(alpha = 0.3f)
+        )
+    ) {
+        Row(
+            modifier = Modifier.padding(16.dp),
+            verticalAlignment = Alignment.CenterVertically
+        ) {
+            AsyncImage(
+                model = match.imageLink,
+                contentDescription = match.name,
+                modifier = Modifier
+                    .size(75.dp)
+                    .clip(RoundedCornerShape(12.dp)),
+                contentScale = ContentScale.Crop
+            )
+
+            Spacer(Modifier.width(16.dp))
+
+            Column(modifier = Modifier.weight(1f)) {
+                Text(
+                    text = listOfNotNull(match.brand, match.name).joinToString(" — "),
+                    style = MaterialTheme.typography.bodyMedium,
+                    fontWeight = FontWeight.SemiBold
+                )
+                Spacer(Modifier.height(6.dp))
+                // The swatch that matched
+                Row(verticalAlignment = Alignment.CenterVertically) {
+                    Box(
+                        modifier = Modifier
+                            .size(18.dp)
+                            .background(parseHexColor(match.hexValue), CircleShape)
+                            .border(1.dp, Color.LightGray, CircleShape)
+                    )
+                    Spacer(Modifier.width(6.dp))
+                    Text(
+                        text = match.colourName ?: "Unnamed shade",
+                        style = MaterialTheme.typography.labelMedium
+                    )
+                }
+                if (match.price != null) {
+                    Spacer(Modifier.height(6.dp))
+                    Text(
+                        text = "${match.priceSign ?: "$"}${match.price}",
+                        style = MaterialTheme.typography.titleMedium,
+                        fontWeight = FontWeight.Bold
+                    )
+                }
+            }
+
+            // Action Icons
+            Column(horizontalAlignment = Alignment.CenterHorizontally) {
+                IconButton(onClick = onToggleLike) {
+                    Icon(
+                        imageVector = if (isLiked) Icons.Filled.Favorite else Icons.Outlined.FavoriteBorder,
+                        contentDescription = "Like",
+                        tint = if (isLiked) Color.Red else MaterialTheme.colorScheme.onSurface.copy(alpha = 0.7f)
+                    )
+                }
+                IconButton(onClick = onAddToCart) {
+                    Icon(
+                        imageVector = Icons.Default.AddShoppingCart,
+                        contentDescription = "Add to Cart"
+                    )
+                }
+            }
+        }
+    }
+}
@@ -27,7 +27,22 @@ fun FilterBottomSheet(
     onBrandToggle: (String) -> Unit,
     onProductTypeToggle: (String) -> Unit,
     onClearFilters: () -> Unit,
-    onDismiss: () -> Unit
+    onDismiss: () -> Unit,
+    tags: List<String> = emptyList(),
+    selectedTags: Set<String> = emptySet(),
+    onTagToggle: (String) -> Unit = {},
+    // Hits per value given the other facets' selections; empty while the full catalog is loading
+    brandCounts: Map<String, Int> = emptyMap(),
+    productTypeCounts: Map<String, Int> = emptyMap(),
+    tagCounts: Map<String, Int> = emptyMap(),
+    // Price bounds are in cents; null bounds / rating mean "not filtered"
+    priceBoundsCents: IntRange? = null,
+    priceSign: String? = null,  // null shows bare numbers (catalog in mixed currencies)
+    minPriceCents: Int? = null,
+    maxPriceCents: Int? = null,
+    onPriceRangeChange: (Int, Int) -> Unit = { _, _ -> },
+    minRating: Double? = null,
+    onMinRatingChange: (Double) -> Unit = {}
 ) {
     ModalBottomSheet(
         onDismissRequest = onDismiss,
@@ -60,7 +75,7 @@ fun FilterBottomSheet(
             }
 
             var selectedTabIndex by remember { mutableStateOf(0) }
-            val tabs = listOf("Brand", "Product Type")
+            val tabs = listOf("Brand", "Product Type", "Tags", "Price")
 
             Spacer(modifier = Modifier.height(16.dp))
 
@@ -116,11 +131,10 @@ fun FilterBottomSheet(
                                         uncheckedColor = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f)  // FIXED!
                                     )
                                 )
-                                Text(
+                                FacetLabel(
                                     text = brand,
-                                    fontSize = 16.sp,
-                                    color = MaterialTheme.colorScheme.onSurface,  // FIXED!
-                                    modifier = Modifier.padding(start = 8.dp)
+                                    count = brandCounts[brand],
+                                    selected = selectedBrands.contains(brand)
                                 )
                             }
                         }
@@ -153,11 +167,57 @@ fun FilterBottomSheet(
                                         uncheckedColor = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f)  // FIXED!
                                     )
                                 )
-                                Text(
+                                FacetLabel(
                                     text = type.replaceFirstChar { it.uppercase() },
-                                    fontSize = 16.sp,
-                                    color = MaterialTheme.colorScheme.onSurface,  // FIXED!
-                                    modifier = Modifier.padding(start = 8.dp)
+                                    count = productTypeCounts[type],
+                                    selected = selectedProductTypes.contains(type)
+                                )
+                            }
+                        }
+                        item {
+                            Spacer(modifier = Modifier.height(100.dp))
+                        }
+                    }
+
+                    2 -> LazyColumn(
+                        modifier = Modifier.fillMaxSize(),
+                        contentPadding = PaddingValues(top = 8.dp)
+                    ) {
+                        if (tags.isEmpty()) {
+                            item {
+                                // Tags come from the full catalog, which may still be downloading
+                                Text(
+                                    text = "Tags are available once all products have loaded",
+                                    fontSize = 14.sp,
+                                    color = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f),
+                                    modifier = Modifier.padding(vertical = 16.dp)
+                                )
+                            }
+                        }
+                        items(tags) { tag ->
+                            Row(
+                                modifier = Modifier
+                                    .fillMaxWidth()
+                                    .clickable(
+                                        onClick = { onTagToggle(tag) },
+                                        indication = rememberRipple(),
+                                        interactionSource = remember { MutableInteractionSource() }
+                                    )
+                                    .padding(vertical = 4.dp),
+                                verticalAlignment = Alignment.CenterVertically
+                            ) {
+                                Checkbox(
+                                    checked = selectedTags.contains(tag),
+                                    onCheckedChange = { onTagToggle(tag) },
+                                    colors = CheckboxDefaults.colors(
+                                        checkedColor = Color(0xFFF472B6),
+                                        uncheckedColor = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f)
+                                    )
+                                )
+                                FacetLabel(
+                                    text = tag,
+                                    count = tagCounts[tag],
+                                    selected = selectedTags.contains(tag)
                                 )
                             }
                         }
@@ -165,6 +225,16 @@ fun FilterBottomSheet(
                             Spacer(modifier = Modifier.height(100.dp))
                         }
                     }
+
+                    3 -> RangeFilters(
+                        priceBoundsCents = priceBoundsCents,
+                        priceSign = priceSign,
+                        minPriceCents = minPriceCents,
+                        maxPriceCents = maxPriceCents,
+                        onPriceRangeChange = onPriceRangeChange,
+                        minRating = minRating,
+                        onMinRatingChange = onMinRatingChange
+                    )
                 }
             }
 
@@ -196,4 +266,96 @@ fun FilterBottomSheet(
             }
         }
     }
-}
\ No newline at end of file
+}
+
+// Sliders report every move - the ViewModel evaluates off the main thread and drops stale results,
+// so the grid follows the thumb without the sheet waiting on it
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+private fun RangeFilters(
+    priceBoundsCents: IntRange?,
+    priceSign: String?,
+    minPriceCents: Int?,
+    maxPriceCents: Int?,
+    onPriceRangeChange: (Int, Int) -> Unit,
+    minRating: Double?,
+    onMinRatingChange: (Double) -> Unit
+) {
+    val sliderColors = SliderDefaults.colors(
+        thumbColor = Color(0xFFF472B6),
+        activeTrackColor = Color(0xFFF472B6)
+    )
+    Column(
+        modifier = Modifier
+            .fillMaxSize()
+            .padding(top = 16.dp)
+    ) {
+        Text(
+            text = "Price",
+            fontSize = 16.sp,
+            fontWeight = FontWeight.SemiBold,
+            color = MaterialTheme.colorScheme.onSurface
+        )
+        if (priceBoundsCents == null || priceBoundsCents.first == priceBoundsCents.last) {
+            // Bounds come from the full catalog, which may still be downloading
+            Text(
+                text = "Price filter is available once all products have loaded",
+                fontSize = 14.sp,
+                color = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f),
+                modifier = Modifier.padding(vertical = 16.dp)
+            )
+        } else {
+            val low = (minPriceCents ?: priceBoundsCents.first).toFloat()
+            val high = (maxPriceCents ?: priceBoundsCents.last).toFloat()
+            Text(
+                text = "${formatCents(low.toInt(), priceSign)} - ${formatCents(high.toInt(), priceSign)}",
+                fontSize = 14.sp,
+                color = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f),
+                modifier = Modifier.padding(top = 4.dp)
+            )
+            RangeSlider(
+                value = low..high,
+                onValueChange = { range -> onPriceRangeChange(range.start.toInt(), range.endInclusive.toInt()) },
+                valueRange = priceBoundsCents.first.toFloat()..priceBoundsCents.last.toFloat(),
+                colors = sliderColors
+            )
+        }
+
+        Spacer(modifier = Modifier.height(24.dp))
+
+        Text(
+            text = "Minimum rating",
+            fontSize = 16.sp,
+            fontWeight = FontWeight.SemiBold,
+            color = MaterialTheme.colorScheme.onSurface
+        )
+        val rating = (minRating ?: 0.0).toFloat()
+        Text(
+            text = if (rating > 0f) "${"%.1f".format(rating)} stars & up" else "Any rating",
+            fontSize = 14.sp,
+            color = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f),
+            modifier = Modifier.padding(top = 4.dp)
+        )
+        Slider(
+            value = rating,
+            onValueChange = { onMinRatingChange(it.toDouble()) },
+            valueRange = 0f..5f,
+            steps = 9,  // half-star steps
+            colors = sliderColors
+        )
+    }
+}
+
+private fun formatCents(cents: Int, sign: String?): String = "%s%d.%02d".format(sign.orEmpty(), cents / 100, cents % 100)
+
+// Value plus its hit count; values that would lead to "No products found" are dimmed (but still selectable)
+@Composable
+private fun FacetLabel(text: String, count: Int?, selected: Boolean) {
+    val dimmed = count == 0 && !selected
+    Text(
+        text = if (count != null) "$text ($count)" else text,
+        fontSize = 16.sp,
+        color = MaterialTheme.colorScheme.onSurface.copy(alpha = if (dimmed) 0.4f else 1f),
+        modifier = Modifier.padding(start = 8.dp)
+    )
+}
@@ -6,6 +6,7 @@ import androidx.compose.foundation.clickable
 import androidx.compose.foundation.interaction.MutableInteractionSource
 import androidx.compose.foundation.layout.*
 import androidx.compose.foundation.lazy.LazyRow
+import androidx.compose.foundation.lazy.items
 import androidx.compose.foundation.lazy.itemsIndexed
 import androidx.compose.foundation.rememberScrollState
 import androidx.compose.foundation.shape.CircleShape
@@ -30,6 +31,7 @@ import androidx.compose.ui.unit.sp
 import coil.compose.SubcomposeAsyncImage
 import com.example.beautyapp.data.Product
 import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.data.catalog.SwatchMatch
 import com.example.beautyapp.utils.parseHexColor  // NEW - import from utils!
 
 @OptIn(ExperimentalMaterial3Api::class)
@@ -39,9 +41,17 @@ fun ProductDetailScreen(
     isLiked: Boolean,
     onToggleLike: (Int) -> Unit,
     onAddToCart: (Int, ProductColor?) -> Unit,  // UPDATED - added ProductColor parameter!
-    onBack: () -> Unit
+    onBack: () -> Unit,
+    // Other catalog products with a swatch close to the selected shade
+    findSimilarShades: suspend (Int, ProductColor) -> List<SwatchMatch> = { _, _ -> emptyList() },
+    onProductClick: (Product) -> Unit = {}
 ) {
-    var selectedShade by remember { mutableStateOf<ProductColor?>(null) }
+    var selectedShade by remember(product.id) { mutableStateOf<ProductColor?>(null) }
+    var similarShades by remember(product.id) { mutableStateOf<List<SwatchMatch>>(emptyList()) }
+
+    LaunchedEffect(product.id, selectedShade) {
+        similarShades = selectedShade?.let { findSimilarShades(product.id, it) } ?: emptyList()
+    }
 
     Scaffold(
         topBar = {
@@ -227,6 +237,24 @@ fun ProductDetailScreen(
                             )
                         }
                     }
+
+                    if (similarShades.isNotEmpty()) {
+                        Spacer(modifier = Modifier.height(20.dp))
+                        Text(
+                            text = "Similar shades",
+                            fontSize = 16.sp,
+                            fontWeight = FontWeight.Bold,
+                            color = MaterialTheme.colorScheme.onSurface
+                        )
+                        Spacer(modifier = Modifier.height(12.dp))
+                        LazyRow(
+                            horizontalArrangement = Arrangement.spacedBy(12.dp)
+                        ) {
+                            items(similarShades, key = { it.product.id }) { match ->
+                                SimilarShadeItem(match = match, onClick = { onProductClick(match.product) })
+                            }
+                        }
+                    }
                 } else {
                     Text(
                         text = "No shade information available",
@@ -318,4 +346,45 @@ fun ShadeButton(
     }
 }
 
+// Swatch of another product plus what it is, tapping opens that product
+@Composable
+private fun SimilarShadeItem(
+    match: SwatchMatch,
+    onClick: () -> Unit
+) {
+    Column(
+        horizontalAlignment = Alignment.CenterHorizontally,
+        modifier = Modifier
+            .width(72.dp)
+            .clickable(
+                onClick = onClick,
+                indication = rememberRipple(),
+                interactionSource = remember { MutableInteractionSource() }
+            )
+    ) {
+        Box(
+            modifier = Modifier
+                .size(40.dp)
+                .background(color = parseHexColor(match.color.hexValue), shape = CircleShape)
+                .border(width = 2.dp, color = Color.LightGray, shape = CircleShape)
+        )
+        Spacer(modifier = Modifier.height(4.dp))
+        Text(
+            text = match.product.brand ?: match.product.name ?: "Product",
+            fontSize = 10.sp,
+            fontWeight = FontWeight.SemiBold,
+            color = MaterialTheme.colorScheme.onSurface,
+            maxLines = 1
+        )
+        if (match.color.colourName != null) {
+            Text(
+                text = match.color.colourName,
+                fontSize = 10.sp,
+                color = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.6f),
+                maxLines = 2
+            )
+        }
+    }
+}
+
 // REMOVED - parseHexColor function deleted! Now imported from utils!
\ No newline at end of file
@@ -5,8 +5,12 @@ import androidx.compose.foundation.lazy.grid.GridCells
 import androidx.compose.foundation.lazy.grid.LazyVerticalGrid
 import androidx.compose.foundation.lazy.grid.itemsIndexed
 import androidx.compose.foundation.shape.CircleShape
+import androidx.compose.foundation.shape.RoundedCornerShape
 import androidx.compose.material.icons.Icons
+import androidx.compose.material.icons.filled.Close
 import androidx.compose.material.icons.filled.FilterList
+import androidx.compose.material.icons.filled.Search
+import androidx.compose.material.icons.filled.Sort
 import androidx.compose.material3.*
 import androidx.compose.runtime.*
 import androidx.compose.ui.Alignment
@@ -17,8 +21,14 @@ import androidx.compose.ui.layout.ContentScale
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.text.style.TextAlign
 import androidx.compose.ui.unit.dp
+import androidx.paging.LoadState
+import androidx.paging.compose.LazyPagingItems
+import androidx.paging.compose.itemContentType
+import androidx.paging.compose.itemKey
 import coil.compose.AsyncImage
 import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.catalog.CatalogIndex
+import com.example.beautyapp.data.catalog.SortKey
 import com.example.beautyapp.ui.components.ProductCard
 import com.example.beautyapp.ui.components.FilterBottomSheet
 
@@ -36,62 +46,137 @@ fun ProductsScreen(
     selectedProductTypes: Set<String> = emptySet(),
     onBrandToggle: (String) -> Unit = {},
     onProductTypeToggle: (String) -> Unit = {},
+    tags: List<String> = emptyList(),
+    selectedTags: Set<String> = emptySet(),
+    onTagToggle: (String) -> Unit = {},
+    facetCounts: CatalogIndex.FacetCounts = CatalogIndex.FacetCounts(),
     onClearFilters: () -> Unit = {},
     hasActiveFilters: Boolean = false,
-    onProductClick: (Product) -> Unit = {}
+    onProductClick: (Product) -> Unit = {},
+    errorMessage: String? = null,
+    onRetry: () -> Unit = {},
+    pagedProducts: LazyPagingItems<Product>? = null,  // when set, the grid pages from the indexed catalog instead of products
+    searchQuery: String = "",
+    onSearchQueryChange: (String) -> Unit = {},
+    sortKey: SortKey = SortKey.FEATURED,
+    onSortKeyChange: (SortKey) -> Unit = {},
+    priceBoundsCents: IntRange? = null,
+    priceSign: String? = null,
+    minPriceCents: Int? = null,
+    maxPriceCents: Int? = null,
+    onPriceRangeChange: (Int, Int) -> Unit = { _, _ -> },
+    minRating: Double? = null,
+    onMinRatingChange: (Double) -> Unit = {}
 ) {
     var showFilterSheet by remember { mutableStateOf(false) }
+    var showSortMenu by remember { mutableStateOf(false) }
 
     Scaffold(
         topBar = {
-            TopAppBar(
-                title = {
-                    Text(
-                        text = "Products",
-                        textAlign = TextAlign.Center,
-                        fontWeight = FontWeight.Bold,
-                        color = MaterialTheme.colorScheme.onSurface,  // Theme-aware!
-                        modifier = Modifier.fillMaxWidth()
-                    )
-                },
-                actions = {
-                    // Filter Icon with badge
-                    BadgedBox(
-                        badge = {
-                            if (hasActiveFilters) {
-                                Badge(
-                                    containerColor = Color(0xFFF472B6)  // Brand color
-                                ) {
-                                    val count = selectedBrands.size + selectedProductTypes.size
-                                    Text(text = count.toString())
+            Column {
+                TopAppBar(
+                    title = {
+                        Text(
+                            text = "Products",
+                            textAlign = TextAlign.Center,
+                            fontWeight = FontWeight.Bold,
+                            color = MaterialTheme.colorScheme.onSurface,  // Theme-aware!
+                            modifier = Modifier.fillMaxWidth()
+                        )
+                    },
+                    actions = {
+                        // Sort menu - every order is precomputed, so switching is instant
+                        Box {
+                            IconButton(onClick = { showSortMenu = true }) {
+                                Icon(
+                                    imageVector = Icons.Default.Sort,
+                                    contentDescription = "Sort",
+                                    tint = if (sortKey != SortKey.FEATURED) Color(0xFFF472B6) else MaterialTheme.colorScheme.onSurface
+                                )
+                            }
+                            DropdownMenu(
+                                expanded = showSortMenu,
+                                onDismissRequest = { showSortMenu = false }
+                            ) {
+                                SortKey.values().forEach { key ->
+                                    DropdownMenuItem(
+                                        text = {
+                                            Text(
+                                                text = key.label,
+                                                fontWeight = if (key == sortKey) FontWeight.Bold else FontWeight.Normal
+                                            )
+                                        },
+                                        onClick = {
+                                            onSortKeyChange(key)
+                                            showSortMenu = false
+                                        }
+                                    )
                                 }
                             }
                         }
-                    ) {
-                        IconButton(onClick = { showFilterSheet = true }) {
-                            Icon(
-                                imageVector = Icons.Default.FilterList,
-                                contentDescription = "Filter",
-                                tint = MaterialTheme.colorScheme.onSurface  // Theme-aware!
-                            )
+
+                        // Filter Icon with badge
+                        BadgedBox(
+                            badge = {
+                                if (hasActiveFilters) {
+                                    Badge(
+                                        containerColor = Color(0xFFF472B6)  // Brand color
+                                    ) {
+                                        val count = selectedBrands.size + selectedProductTypes.size + selectedTags.size +
+                                            (if (minPriceCents != null || maxPriceCents != null) 1 else 0) +
+                                            (if (minRating != null) 1 else 0)
+                                        Text(text = count.toString())
+                                    }
+                                }
+                            }
+                        ) {
+                            IconButton(onClick = { showFilterSheet = true }) {
+                                Icon(
+                                    imageVector = Icons.Default.FilterList,
+                                    contentDescription = "Filter",
+                                    tint = MaterialTheme.colorScheme.onSurface  // Theme-aware!
+                                )
+                            }
                         }
-                    }
 
-                    // Profile Image
-                    AsyncImage(
-                        model = "https://images.unsplash.com/photo-1494790108377-be9c29b29330?w=100&h=100&fit=crop",
-                        contentDescription = "Profile",
-                        contentScale = ContentScale.Crop,
-                        modifier = Modifier
-                            .size(32.dp)
-                            .clip(CircleShape)
+                        // Profile Image
+                        AsyncImage(
+                            model = "https://images.unsplash.com/photo-1494790108377-be9c29b29330?w=100&h=100&fit=crop",
+                            contentDescription = "Profile",
+                            contentScale = ContentScale.Crop,
+                            modifier = Modifier
+                                .size(32.dp)
+                                .clip(CircleShape)
+                        )
+                        Spacer(modifier = Modifier.width(8.dp))
+                    },
+                    colors = TopAppBarDefaults.topAppBarColors(
+                        containerColor = MaterialTheme.colorScheme.surface  // Theme-aware!
                     )
-                    Spacer(modifier = Modifier.width(8.dp))
-                },
-                colors = TopAppBarDefaults.topAppBarColors(
-                    containerColor = MaterialTheme.colorScheme.surface  // Theme-aware!
                 )
-            )
+
+                // Search - the ViewModel debounces typing and only keeps the latest query
+                OutlinedTextField(
+                    value = searchQuery,
+                    onValueChange = onSearchQueryChange,
+                    placeholder = { Text("Search products, brands, tags") },
+                    leadingIcon = {
+                        Icon(imageVector = Icons.Default.Search, contentDescription = null)
+                    },
+                    trailingIcon = {
+                        if (searchQuery.isNotEmpty()) {
+                            IconButton(onClick = { onSearchQueryChange("") }) {
+                                Icon(imageVector = Icons.Default.Close, contentDescription = "Clear search")
+                            }
+                        }
+                    },
+                    singleLine = true,
+                    shape = RoundedCornerShape(24.dp),
+                    modifier = Modifier
+                        .fillMaxWidth()
+                        .padding(horizontal = 16.dp, vertical = 4.dp)
+                )
+            }
         }
     ) { paddingValues ->
         Box(
@@ -99,22 +184,37 @@ fun ProductsScreen(
                 .fillMaxSize()
                 .padding(paddingValues)
         ) {
-            if (loading) {
+            val pagingRefresh = pagedProducts?.loadState?.refresh
+            val isEmpty = if (pagedProducts != null) {
+                pagedProducts.itemCount == 0 && pagingRefresh is LoadState.NotLoading
+            } else {
+                products.isEmpty()
+            }
+            if (loading || (pagedProducts != null && pagedProducts.itemCount == 0 && pagingRefresh is LoadState.Loading)) {
                 CircularProgressIndicator(
                     color = Color(0xFFF472B6),  // Brand color
                     modifier = Modifier.align(Alignment.Center)
                 )
-            } else if (products.isEmpty()) {
+            } else if (isEmpty) {
                 Column(
                     modifier = Modifier.align(Alignment.Center),
                     horizontalAlignment = Alignment.CenterHorizontally
                 ) {
                     Text(
-                        text = "No products found",
+                        text = errorMessage ?: "No products found",
+                        textAlign = TextAlign.Center,
                         style = MaterialTheme.typography.bodyLarge,
                         color = MaterialTheme.colorScheme.onBackground.copy(alpha = 0.6f)  // Theme-aware!
                     )
-                    if (hasActiveFilters) {
+                    if (errorMessage != null) {
+                        Spacer(modifier = Modifier.height(8.dp))
+                        TextButton(onClick = onRetry) {
+                            Text(
+                                text = "Retry",
+                                color = Color(0xFFF472B6)  // Brand color
+                            )
+                        }
+                    } else if (hasActiveFilters) {
                         Spacer(modifier = Modifier.height(8.dp))
                         TextButton(onClick = onClearFilters) {
                             Text(
@@ -132,15 +232,37 @@ fun ProductsScreen(
                     verticalArrangement = Arrangement.spacedBy(12.dp),
                     modifier = Modifier.fillMaxSize()
                 ) {
-                    itemsIndexed(products) { index, product ->
-                        ProductCard(
-                            product = product,
-                            isLiked = likedProducts.contains(product.id),
-                            onToggleLike = onToggleLike,
-                            colorIndex = index,
-                            onAddToCart = onAddToCart,
-                            onClick = { onProductClick(product) }
-                        )
+                    if (pagedProducts != null) {
+                        items(
+                            count = pagedProducts.itemCount,
+                            key = pagedProducts.itemKey { it.id },
+                            contentType = pagedProducts.itemContentType { "product" }
+                        ) { index ->
+                            val product = pagedProducts[index]
+                            if (product != null) {
+                                ProductCard(
+                                    product = product,
+                                    isLiked = likedProducts.contains(product.id),
+                                    onToggleLike = onToggleLike,
+                                    colorIndex = index,
+                                    onAddToCart = onAddToCart,
+                                    onClick = { onProductClick(product) }
+                                )
+                            } else {
+                                ProductPlaceholder()
+                            }
+                        }
+                    } else {
+                        itemsIndexed(products) { index, product ->
+                            ProductCard(
+                                product = product,
+                                isLiked = likedProducts.contains(product.id),
+                                onToggleLike = onToggleLike,
+                                colorIndex = index,
+                                onAddToCart = onAddToCart,
+                                onClick = { onProductClick(product) }
+                            )
+                        }
                     }
                 }
             }
@@ -160,7 +282,37 @@ fun ProductsScreen(
                 onClearFilters()
                 showFilterSheet = false
             },
-            onDismiss = { showFilterSheet = false }
+            onDismiss = { showFilterSheet = false },
+            tags = tags,
+            selectedTags = selectedTags,
+            onTagToggle = onTagToggle,
+            brandCounts = facetCounts.brands,
+            productTypeCounts = facetCounts.productTypes,
+            tagCounts = facetCounts.tags,
+            priceBoundsCents = priceBoundsCents,
+            priceSign = priceSign,
+            minPriceCents = minPriceCents,
+            maxPriceCents = maxPriceCents,
+            onPriceRangeChange = onPriceRangeChange,
+            minRating = minRating,
+            onMinRatingChange = onMinRatingChange
         )
     }
-}
\ No newline at end of file
+}
+
+// Same footprint as a ProductCard, shown for rows whose page hasn't loaded yet
+@Composable
+private fun ProductPlaceholder() {
+    Column(modifier = Modifier.fillMaxWidth()) {
+        Card(
+            modifier = Modifier
+                .fillMaxWidth()
+                .aspectRatio(1f),
+            shape = RoundedCornerShape(16.dp),
+            colors = CardDefaults.cardColors(
+                containerColor = MaterialTheme.colorScheme.surfaceVariant.copy(alpha = 0.3f)
+            )
+        ) {}
+        Spacer(modifier = Modifier.height(56.dp))  // name / brand / price lines of a ProductCard
+    }
+}
@@ -63,7 +63,6 @@ import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.filled.*
 import androidx.compose.material3.*
 import androidx.compose.runtime.*
-import androidx.compose.runtime.livedata.observeAsState
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.draw.clip
@@ -126,11 +125,12 @@ fun ProfileScreen(
     var showAddNoteDialog by remember { mutableStateOf(false) }
 
 
-    //This gets the local products from the makeup db, and filters them by the liked IDs
-    val allLocalProducts by shadeProductViewModel.products.observeAsState(initial = emptyList())
-    val likedLocalProducts = remember(allLocalProducts, likedLocalProductIds) {
-        allLocalProducts.filter { it.productId in likedLocalProductIds }
+    //This gets the liked local products from the makeup db by their IDs
+    // (all shades - not just the shade currently selected on the Shade Match tab)
+    LaunchedEffect(likedLocalProductIds) {
+        shadeProductViewModel.setLikedProductIds(likedLocalProductIds)
     }
+    val likedLocalProducts by shadeProductViewModel.likedProducts.collectAsState()
 
     Scaffold(
         topBar = {
@@ -1,14 +1,23 @@
 package com.example.beautyapp.ui.screens
 
+import android.net.Uri
+import androidx.activity.compose.rememberLauncherForActivityResult
+import androidx.activity.result.contract.ActivityResultContracts
 import androidx.compose.foundation.background
 import androidx.compose.foundation.border
 import androidx.compose.foundation.layout.*
 import androidx.compose.foundation.rememberScrollState
 import androidx.compose.foundation.shape.CircleShape
 import androidx.compose.foundation.verticalScroll
+import androidx.compose.material.icons.Icons
+import androidx.compose.material.icons.filled.Face
+import androidx.compose.material3.CircularProgressIndicator
+import androidx.compose.material3.Icon
 import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.OutlinedButton
 import androidx.compose.material3.Text
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.livedata.observeAsState
 import androidx.compose.ui.Alignment
@@ -18,6 +27,8 @@ import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
 import com.example.beautyapp.data.MakeupProduct
+import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.ui.components.CatalogShadeMatchSection
 import com.example.beautyapp.ui.components.ProductRecommendationSection
 import com.example.beautyapp.ui.components.ShadeSelectionSection
 import com.example.beautyapp.viewmodel.ShadeProductViewModel
@@ -37,11 +48,23 @@ fun ShadeProductScreen(
     likedLocalProductIds: Set<Int>,
     onToggleLike: (Int) -> Unit,
     onToggleLocalLike: (Int) -> Unit,
-    onAddToCart: (MakeupProduct) -> Unit
+    onAddToCart: (MakeupProduct) -> Unit,
+    onAddCatalogProductToCart: (Int, ProductColor?) -> Unit = { _, _ -> }
 ) {
-    val shades by viewModel.shades.observeAsState(emptyList())
-    val selectedShade by viewModel.selectedShade.observeAsState()
-    val products by viewModel.products.observeAsState(emptyList())
+    val shades by viewModel.shades.collectAsState()
+    val selectedShade by viewModel.selectedShade.collectAsState()
+    val products by viewModel.products.collectAsState()
+    val catalogMatches by viewModel.catalogMatches.collectAsState()
+    val skinTone by viewModel.skinTone.observeAsState()
+    val analyzingSelfie by viewModel.analyzingSelfie.observeAsState(false)
+    val selfieError by viewModel.selfieError.observeAsState()
+
+    // same picker as the note photos, but the image is only analyzed, never stored
+    val selfiePickerLauncher = rememberLauncherForActivityResult(
+        contract = ActivityResultContracts.GetContent()
+    ) { uri: Uri? ->
+        uri?.let { viewModel.onSelfiePicked(it) }
+    }
 
     Column(
         modifier = Modifier
@@ -56,6 +79,54 @@ fun ShadeProductScreen(
             onShadeSelected = { viewModel.onShadeSelected(it) }
         )
 
+        Spacer(Modifier.height(16.dp))
+
+        // or let a selfie pick the shade
+        OutlinedButton(
+            onClick = { selfiePickerLauncher.launch("image/*") },
+            enabled = !analyzingSelfie,
+            modifier = Modifier.align(Alignment.CenterHorizontally)
+        ) {
+            if (analyzingSelfie) {
+                CircularProgressIndicator(modifier = Modifier.size(18.dp), strokeWidth = 2.dp)
+            } else {
+                Icon(imageVector = Icons.Default.Face, contentDescription = null)
+            }
+            Spacer(Modifier.width(8.dp))
+            Text("Match from a selfie")
+        }
+
+        selfieError?.let {
+            Spacer(Modifier.height(8.dp))
+            Text(
+                text = it,
+                style = MaterialTheme.typography.bodySmall,
+                color = MaterialTheme.colorScheme.error,
+                modifier = Modifier.align(Alignment.CenterHorizontally)
+            )
+        }
+
+        skinTone?.let { tone ->
+            Spacer(Modifier.height(12.dp))
+            Row(
+                verticalAlignment = Alignment.CenterVertically,
+                modifier = Modifier.align(Alignment.CenterHorizontally)
+            ) {
+                Box(
+                    modifier = Modifier
+                        .size(32.dp)
+                        .clip(CircleShape)
+                        .background(Color(tone.argb))
+                        .border(1.dp, Color.LightGray, CircleShape)
+                )
+                Spacer(Modifier.width(8.dp))
+                Text(
+                    text = "Estimated from your photo",
+                    style = MaterialTheme.typography.bodyMedium
+                )
+            }
+        }
+
         Spacer(Modifier.height(32.dp))
 
         // displays selected shade with color circle
@@ -98,5 +169,15 @@ fun ShadeProductScreen(
             likedLocalProductIds = likedLocalProductIds,
             onToggleLocalLike = onToggleLocalLike
         )
+
+        Spacer(Modifier.height(24.dp))
+
+        // closest products from the full API catalog, precomputed per shade
+        CatalogShadeMatchSection(
+            matches = catalogMatches,
+            likedProductIds = likedProductIds,
+            onToggleLike = onToggleLike,
+            onAddToCart = onAddCatalogProductToCart
+        )
     }
 }
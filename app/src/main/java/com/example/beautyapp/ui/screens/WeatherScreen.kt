@@ -68,9 +68,9 @@ fun WeatherScreen(
         mutableStateOf<WeatherViewModel.WeatherState>(WeatherViewModel.WeatherState.Initial)
     }
 
-    // Fetch Boston weather on initial load
+    // Fetch Boston weather on initial load (no-op when coming back to the tab)
     LaunchedEffect(Unit) {
-        viewModel.fetchWeather("Boston", apiKey)
+        viewModel.loadInitialWeather("Boston", apiKey)
     }
 
     Column(
@@ -3,18 +3,93 @@ package com.example.beautyapp.utils
 import androidx.compose.ui.graphics.Color
 
 fun parseHexColor(hexString: String?): Color {
-    if (hexString.isNullOrEmpty()) return Color.Gray
+    val argb = parseArgb(hexString) ?: return Color.Gray
+    return Color(argb)
+}
+
+// "#RRGGBB" / "RRGGBB" / "#AARRGGBB" / "#RGB" -> packed ARGB int, or null if it isn't a hex color
+fun parseArgb(hexString: String?): Int? {
+    if (hexString.isNullOrEmpty()) return null
 
     return try {
-        val cleanHex = hexString.removePrefix("#")
+        val cleanHex = hexString.trim().removePrefix("#")
         val colorInt = cleanHex.toLong(16)
 
-        if (cleanHex.length == 6) {
-            Color(0xFF000000 or colorInt)
-        } else {
-            Color(colorInt)
+        when (cleanHex.length) {
+            3 -> {
+                val r = (colorInt shr 8) and 0xF
+                val g = (colorInt shr 4) and 0xF
+                val b = colorInt and 0xF
+                (0xFF000000 or (r * 0x11 shl 16) or (g * 0x11 shl 8) or (b * 0x11)).toInt()
+            }
+            6 -> (0xFF000000 or colorInt).toInt()
+            8 -> colorInt.toInt()
+            else -> null
         }
     } catch (e: Exception) {
-        Color.Gray
+        null
     }
-}
\ No newline at end of file
+}
+
+// --- CIELAB ---
+// Euclidean distance in Lab (CIE76) tracks perceived difference far better than RGB distance, and
+// unlike CIEDE2000 it is a real metric, so it works with spatial indexes (SwatchIndex).
+
+// sRGB channel (0..255) -> linear light, precomputed for every byte value
+private val SRGB_TO_LINEAR = FloatArray(256) { i ->
+    val c = i / 255.0
+    (if (c <= 0.04045) c / 12.92 else Math.pow((c + 0.055) / 1.055, 2.4)).toFloat()
+}
+
+// D65 reference white
+private const val WHITE_X = 0.95047f
+private const val WHITE_Y = 1.0f
+private const val WHITE_Z = 1.08883f
+
+// Packed ARGB (alpha ignored) -> L, a, b written to out[offset], out[offset + 1], out[offset + 2]
+fun argbToLab(argb: Int, out: FloatArray, offset: Int = 0) {
+    val r = SRGB_TO_LINEAR[(argb shr 16) and 0xFF]
+    val g = SRGB_TO_LINEAR[(argb shr 8) and 0xFF]
+    val b = SRGB_TO_LINEAR[argb and 0xFF]
+    val fx = labF((0.4124564f * r + 0.3575761f * g + 0.1804375f * b) / WHITE_X)
+    val fy = labF((0.2126729f * r + 0.7151522f * g + 0.0721750f * b) / WHITE_Y)
+    val fz = labF((0.0193339f * r + 0.1191920f * g + 0.9503041f * b) / WHITE_Z)
+    out[offset] = 116f * fy - 16f
+    out[offset + 1] = 500f * (fx - fy)
+    out[offset + 2] = 200f * (fy - fz)
+}
+
+fun argbToLab(argb: Int): FloatArray = FloatArray(3).also { argbToLab(argb, it) }
+
+// Lab -> opaque ARGB, clamped to the sRGB gamut (e.g. for showing a k-means center)
+fun labToArgb(l: Float, a: Float, b: Float): Int {
+    val fy = (l + 16f) / 116f
+    val fx = fy + a / 500f
+    val fz = fy - b / 200f
+    val x = labFInverse(fx) * WHITE_X
+    val y = labFInverse(fy) * WHITE_Y
+    val z = labFInverse(fz) * WHITE_Z
+    val r = linearToSrgb(3.2404542f * x - 1.5371385f * y - 0.4985314f * z)
+    val g = linearToSrgb(-0.9692660f * x + 1.8760108f * y + 0.0415560f * z)
+    val bl = linearToSrgb(0.0556434f * x - 0.2040259f * y + 1.0572252f * z)
+    return (0xFF shl 24) or (r shl 16) or (g shl 8) or bl
+}
+
+// Squared CIE76 distance between two Lab points stored in arrays
+fun labDistanceSquared(p: FloatArray, pOffset: Int, q: FloatArray, qOffset: Int): Float {
+    val dl = p[pOffset] - q[qOffset]
+    val da = p[pOffset + 1] - q[qOffset + 1]
+    val db = p[pOffset + 2] - q[qOffset + 2]
+    return dl * dl + da * da + db * db
+}
+
+private fun labF(t: Float): Float =
+    if (t > 0.008856f) Math.cbrt(t.toDouble()).toFloat() else 7.787f * t + 16f / 116f
+
+private fun labFInverse(t: Float): Float =
+    if (t > 0.206893f) t * t * t else (t - 16f / 116f) / 7.787f
+
+private fun linearToSrgb(c: Float): Int {
+    val v = if (c <= 0.0031308f) 12.92f * c else 1.055f * Math.pow(c.toDouble(), 1 / 2.4).toFloat() - 0.055f
+    return (v * 255f + 0.5f).toInt().coerceIn(0, 255)
+}
@@ -0,0 +1,69 @@
+package com.example.beautyapp.utils
+
+import android.util.Log
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import java.util.concurrent.atomic.AtomicInteger
+
+/*
+ * SingleFlight.kt
+ * PURPOSE: Collapses concurrent identical requests into one
+ * - run(key) starts the block the first time a key is asked for; every caller that asks for the
+ *   same key while it is still running awaits that same call instead of starting another one
+ * - The shared call runs in the owner's scope, so one caller giving up doesn't cancel it for the others
+ * - cancelOthers(key) cancels every in-flight call except key - used when a newer search supersedes older ones
+ * - started / coalesced / cancelled counters show how much work was saved
+ */
+class SingleFlight<K, V>(
+    private val scope: CoroutineScope,
+    private val name: String
+) {
+    private val lock = Any()
+    private val inFlight = HashMap<K, Deferred<V>>()
+
+    val started = AtomicInteger()
+    val coalesced = AtomicInteger()
+    val cancelled = AtomicInteger()
+
+    suspend fun run(key: K, block: suspend () -> V): V {
+        val call = synchronized(lock) {
+            inFlight[key]?.let { existing ->
+                coalesced.incrementAndGet()
+                // Joins can come in bursts, only log them when asked to:
+                // adb shell setprop log.tag.SingleFlight DEBUG
+                if (Log.isLoggable(TAG, Log.DEBUG)) Log.d(TAG, "$name: joined in-flight call for $key ($this)")
+                return@synchronized existing
+            }
+            val created = scope.async(start = CoroutineStart.LAZY) { block() }
+            inFlight[key] = created
+            started.incrementAndGet()
+            created.invokeOnCompletion {
+                synchronized(lock) {
+                    if (inFlight[key] === created) inFlight.remove(key)
+                }
+            }
+            created
+        }
+        call.start()
+        return call.await()
+    }
+
+    fun cancelOthers(key: K) {
+        val superseded = synchronized(lock) {
+            inFlight.filterKeys { it != key }.values.toList()
+        }
+        superseded.forEach {
+            it.cancel()
+            cancelled.incrementAndGet()
+        }
+    }
+
+    override fun toString(): String =
+        "started=${started.get()} coalesced=${coalesced.get()} cancelled=${cancelled.get()}"
+
+    companion object {
+        private const val TAG = "SingleFlight"
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.beautyapp.utils
+
+import android.content.Context
+import android.graphics.BitmapFactory
+import android.net.Uri
+import com.example.beautyapp.data.Shade
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.withContext
+import kotlin.random.Random
+
+/*
+ * SkinToneExtractor.kt
+ * PURPOSE: Estimate a skin tone from a selfie and map it to the closest makeup.db Shade
+ * - Decode: the photo is decoded with inSampleSize down to ~MAX_DECODE_SIZE px on its long side,
+ *   so a 12 MP image never exists in memory at full size
+ * - Sample: pixels passing a YCbCr skin test (drops hair, eyes, most backgrounds) are taken with a
+ *   fixed stride, at most MAX_SAMPLES of them, and converted to CIELAB
+ * - Cluster: k-means in Lab, each iteration's assign + partial sums split over one chunk per core;
+ *   the largest cluster is taken as skin (shadows and highlights end up in the smaller ones)
+ * - Match: nearest Shade by CIE76 distance
+ * Everything after decoding works on a plain IntArray of ARGB pixels, so it runs on the JVM too.
+ */
+object SkinToneExtractor {
+
+    private const val MAX_DECODE_SIZE = 512
+    private const val MAX_SAMPLES = 6000
+    private const val CLUSTERS = 4
+    private const val MAX_ITERATIONS = 15
+    private const val CONVERGED_SHIFT = 0.5f  // Lab units
+    private const val MIN_SKIN_PIXELS = 50
+    private const val SEED = 42
+
+    private val PARALLELISM = Runtime.getRuntime().availableProcessors().coerceAtLeast(1)
+
+    class SkinTone(
+        val argb: Int,  // center of the skin cluster
+        val shade: Shade?,  // closest shade, null when there are no shades
+        val coverage: Float  // share of the sampled skin pixels in that cluster
+    )
+
+    // null when the image can't be read or shows too little skin
+    suspend fun fromUri(context: Context, uri: Uri, shades: List<Shade>): SkinTone? {
+        val pixels = withContext(Dispatchers.IO) { decodePixels(context, uri) } ?: return null
+        return fromPixels(pixels, shades)
+    }
+
+    suspend fun fromPixels(pixels: IntArray, shades: List<Shade>): SkinTone? {
+        val samples = withContext(Dispatchers.Default) { sampleSkin(pixels) }
+        if (samples.size / 3 < MIN_SKIN_PIXELS) return null
+        val (center, coverage) = dominantCluster(samples)
+        val argb = labToArgb(center[0], center[1], center[2])
+        return SkinTone(argb, nearestShade(center, shades), coverage)
+    }
+
+    fun nearestShade(lab: FloatArray, shades: List<Shade>): Shade? {
+        val shadeLab = FloatArray(3)
+        return shades.minByOrNull { shade ->
+            val argb = parseArgb(shade.hexCode) ?: return@minByOrNull Float.POSITIVE_INFINITY
+            argbToLab(argb, shadeLab)
+            labDistanceSquared(lab, 0, shadeLab, 0)
+        }
+    }
+
+    private fun decodePixels(context: Context, uri: Uri): IntArray? {
+        val bounds = BitmapFactory.Options().apply { inJustDecodeBounds = true }
+        context.contentResolver.openInputStream(uri)?.use { BitmapFactory.decodeStream(it, null, bounds) }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null
+
+        var sampleSize = 1
+        while (maxOf(bounds.outWidth, bounds.outHeight) / (sampleSize * 2) >= MAX_DECODE_SIZE) sampleSize *= 2
+        val options = BitmapFactory.Options().apply { inSampleSize = sampleSize }
+        val bitmap = context.contentResolver.openInputStream(uri)?.use { BitmapFactory.decodeStream(it, null, options) }
+            ?: return null
+        return try {
+            IntArray(bitmap.width * bitmap.height).also {
+                bitmap.getPixels(it, 0, bitmap.width, 0, 0, bitmap.width, bitmap.height)
+            }
+        } finally {
+            bitmap.recycle()
+        }
+    }
+
+    // Lab triples of up to MAX_SAMPLES skin-colored pixels
+    private fun sampleSkin(pixels: IntArray): FloatArray {
+        val candidates = pixels.count { isSkin(it) }
+        if (candidates == 0) return FloatArray(0)
+        // Rounded up, so the samples reach the bottom of the frame instead of stopping at MAX_SAMPLES
+        val stride = (candidates + MAX_SAMPLES - 1) / MAX_SAMPLES
+        val lab = FloatArray(minOf(candidates, MAX_SAMPLES) * 3)
+        var seen = 0
+        var n = 0
+        for (pixel in pixels) {
+            if (!isSkin(pixel)) continue
+            if (seen++ % stride == 0 && n < lab.size) {
+                argbToLab(pixel, lab, n)
+                n += 3
+            }
+        }
+        return lab.copyOf(n)
+    }
+
+    // Classic YCbCr skin box plus a brightness window, so deep shadows and blown highlights don't count
+    private fun isSkin(argb: Int): Boolean {
+        if ((argb ushr 24) < 128) return false
+        val r = (argb shr 16) and 0xFF
+        val g = (argb shr 8) and 0xFF
+        val b = argb and 0xFF
+        val y = 0.299f * r + 0.587f * g + 0.114f * b
+        val cb = 128f - 0.168736f * r - 0.331264f * g + 0.5f * b
+        val cr = 128f + 0.5f * r - 0.418688f * g - 0.081312f * b
+        return y in 40f..245f && cb in 77f..127f && cr in 133f..173f
+    }
+
+    // k-means over the Lab samples; returns the center of the largest cluster and its share
+    private suspend fun dominantCluster(samples: FloatArray): Pair<FloatArray, Float> = coroutineScope {
+        val count = samples.size / 3
+        val k = minOf(CLUSTERS, count)
+        val centers = initialCenters(samples, k)
+        val chunkSize = (count + PARALLELISM - 1) / PARALLELISM
+        var sizes = IntArray(k)
+
+        for (iteration in 0 until MAX_ITERATIONS) {
+            // Per chunk: nearest center per sample, summed into k Lab accumulators + counts
+            val partials = (0 until count step chunkSize).map { from ->
+                async(Dispatchers.Default) { accumulate(samples, from, minOf(from + chunkSize, count), centers, k) }
+            }.awaitAll()
+
+            val sums = FloatArray(k * 3)
+            sizes = IntArray(k)
+            for ((partialSums, partialSizes) in partials) {
+                for (i in sums.indices) sums[i] += partialSums[i]
+                for (c in 0 until k) sizes[c] += partialSizes[c]
+            }
+
+            var maxShift = 0f
+            for (c in 0 until k) {
+                if (sizes[c] == 0) continue  // empty cluster keeps its center
+                val l = sums[c * 3] / sizes[c]
+                val a = sums[c * 3 + 1] / sizes[c]
+                val b = sums[c * 3 + 2] / sizes[c]
+                val shift = maxOf(
+                    kotlin.math.abs(l - centers[c * 3]),
+                    kotlin.math.abs(a - centers[c * 3 + 1]),
+                    kotlin.math.abs(b - centers[c * 3 + 2])
+                )
+                if (shift > maxShift) maxShift = shift
+                centers[c * 3] = l
+                centers[c * 3 + 1] = a
+                centers[c * 3 + 2] = b
+            }
+            if (maxShift < CONVERGED_SHIFT) break
+        }
+
+        val largest = sizes.indices.maxByOrNull { sizes[it] } ?: 0
+        centers.copyOfRange(largest * 3, largest * 3 + 3) to sizes[largest].toFloat() / count
+    }
+
+    private fun accumulate(samples: FloatArray, from: Int, to: Int, centers: FloatArray, k: Int): Pair<FloatArray, IntArray> {
+        val sums = FloatArray(k * 3)
+        val sizes = IntArray(k)
+        for (i in from until to) {
+            var best = 0
+            var bestDistance = Float.POSITIVE_INFINITY
+            for (c in 0 until k) {
+                val d = labDistanceSquared(samples, i * 3, centers, c * 3)
+                if (d < bestDistance) {
+                    bestDistance = d
+                    best = c
+                }
+            }
+            sums[best * 3] += samples[i * 3]
+            sums[best * 3 + 1] += samples[i * 3 + 1]
+            sums[best * 3 + 2] += samples[i * 3 + 2]
+            sizes[best]++
+        }
+        return sums to sizes
+    }
+
+    // k-means++ seeding with a fixed seed, so the same photo always gives the same result
+    private fun initialCenters(samples: FloatArray, k: Int): FloatArray {
+        val count = samples.size / 3
+        val random = Random(SEED)
+        val centers = FloatArray(k * 3)
+        val first = random.nextInt(count)
+        samples.copyInto(centers, 0, first * 3, first * 3 + 3)
+        val nearest = FloatArray(count) { Float.POSITIVE_INFINITY }
+        for (c in 1 until k) {
+            var total = 0.0
+            for (i in 0 until count) {
+                val d = labDistanceSquared(samples, i * 3, centers, (c - 1) * 3)
+                if (d < nearest[i]) nearest[i] = d
+                total += nearest[i]
+            }
+            // Next center drawn with probability proportional to squared distance
+            var target = random.nextDouble() * total
+            var pick = count - 1
+            for (i in 0 until count) {
+                target -= nearest[i]
+                if (target <= 0) {
+                    pick = i
+                    break
+                }
+            }
+            samples.copyInto(centers, c * 3, pick * 3, pick * 3 + 3)
+        }
+        return centers
+    }
+}
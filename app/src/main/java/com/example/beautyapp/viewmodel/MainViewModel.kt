@@ -10,16 +10,37 @@ import android.app.Application
 import android.util.Log
 import androidx.lifecycle.AndroidViewModel
 import androidx.lifecycle.viewModelScope
+import androidx.paging.PagingData
+import androidx.paging.cachedIn
 import com.example.beautyapp.data.*
-import com.example.beautyapp.network.MakeupApiService
+import com.example.beautyapp.data.catalog.Catalog
+import com.example.beautyapp.data.catalog.CatalogIndex
+import com.example.beautyapp.data.catalog.CatalogPagingSource
+import com.example.beautyapp.data.catalog.CatalogPrefetchWorker
+import com.example.beautyapp.data.catalog.CatalogQuery
+import com.example.beautyapp.data.catalog.CatalogQueryPlanner
+import com.example.beautyapp.data.catalog.CatalogQueryResult
+import com.example.beautyapp.data.catalog.ProductRepository
+import com.example.beautyapp.data.catalog.ShadeMatchRepository
+import com.example.beautyapp.data.catalog.SortKey
+import com.example.beautyapp.data.catalog.SwatchMatch
+import com.example.beautyapp.network.CircuitOpenException
+import com.example.beautyapp.network.MakeupApi
+import com.example.beautyapp.utils.SingleFlight
+import com.example.beautyapp.utils.parseArgb
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.FlowPreview
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.flow.*
 import kotlinx.coroutines.launch
-import okhttp3.OkHttpClient
-import retrofit2.Retrofit
-import retrofit2.converter.gson.GsonConverterFactory
+import kotlinx.coroutines.withContext
 import java.io.File
 import java.util.*
-import java.util.concurrent.TimeUnit
 
 data class AppState(
     val products: List<Product> = emptyList(),
@@ -29,11 +50,23 @@ data class AppState(
     val cartItems: List<CartItem> = emptyList(),
     val localCartItems: List<MakeupProduct> = emptyList(),
     val loading: Boolean = false,
+    val loadError: String? = null,  // set when nothing could be shown, cleared on the next successful load
+    val pagedGrid: Boolean = false,  // full catalog is indexed -> the grid pages from pagedProducts instead of filteredProducts
     val activeTab: String = "home",
     val selectedBrands: Set<String> = emptySet(),
     val selectedProductTypes: Set<String> = emptySet(),
+    val selectedTags: Set<String> = emptySet(),
     val availableBrands: List<String> = emptyList(),
-    val availableProductTypes: List<String> = emptyList()
+    val availableProductTypes: List<String> = emptyList(),
+    val availableTags: List<String> = emptyList(),
+    val searchQuery: String = "",
+    val sortKey: SortKey = SortKey.FEATURED,
+    val priceBoundsCents: IntRange? = null,  // cheapest..dearest in the indexed catalog, null until then
+    val priceSign: String? = null,  // shared by every product that has one; null when they differ (prices shown bare)
+    val minPriceCents: Int? = null,  // null = no bound
+    val maxPriceCents: Int? = null,
+    val minRating: Double? = null,
+    val facetCounts: CatalogIndex.FacetCounts = CatalogIndex.FacetCounts()  // empty until the full catalog is indexed
 )
 
 class MainViewModel(application: Application) : AndroidViewModel(application) {
@@ -46,23 +79,38 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
 
     val notes = noteDao.getAllNotes()
 
-    private val api: MakeupApiService by lazy {
-        val okHttpClient = OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .build()
+    private val productRepository = ProductRepository.create(application)
+    private val shadeMatchRepository = ShadeMatchRepository.create(application)
+    private var shadeMatchJob: Job? = null
 
-        Retrofit.Builder()
-            .baseUrl("https://makeup-api.herokuapp.com/")
-            .client(okHttpClient)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build()
-            .create(MakeupApiService::class.java)
-    }
+    // The catalog currently published; complete = false while a cold download is still streaming in,
+    // indexed = true once its lookups are built (only then do queries go through the index)
+    private class CatalogInput(val catalog: Catalog, val complete: Boolean, val indexed: Boolean = false)
+    private val catalogInput = MutableStateFlow(CatalogInput(Catalog.EMPTY, false))
+
+    // What the paged grid shows: the catalog's products at the index's matching positions (null = all)
+    private class GridQuery(val products: List<Product>, val positions: IntArray?)
+    private val gridQuery = MutableStateFlow(GridQuery(emptyList(), null))
+
+    @OptIn(ExperimentalCoroutinesApi::class)
+    val pagedProducts: Flow<PagingData<Product>> = gridQuery
+        .flatMapLatest { CatalogPagingSource.pager(it.products, it.positions) }
+        .cachedIn(viewModelScope)
+
+    // Search: typed text is debounced, each query replaces the previous one (collectLatest), and it is
+    // re-run when a new catalog lands. ids = ranked product ids, null when not searching.
+    private class SearchResult(val ids: IntArray?)
+    private val searchInput = MutableStateFlow("")
+    private val searchResult = MutableStateFlow(SearchResult(null))
+
+    // Overlapping fetchProducts() calls share one load instead of racing to overwrite state.
+    // One key for loads and refreshes alike, so there is never more than one catalog load in flight.
+    private val catalogFlight = SingleFlight<String, Boolean>(viewModelScope, "catalog")
 
     init {
         fetchProducts()
+        observeSearch()
+        observeQuery()
         viewModelScope.launch {
             likedProductDao.getAllLikedProductIds().collect { likedIds ->
                 _state.update { it.copy(likedProducts = likedIds.toSet()) }
@@ -70,57 +118,303 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
         }
     }
 
-    fun fetchProducts() {
+    // Offline-first: show whatever is on disk right away, then refresh from the network
+    // only when the cached copy is missing or older than the repository's staleness window
+    fun fetchProducts(forceRefresh: Boolean = false) {
         viewModelScope.launch {
-            _state.value = _state.value.copy(loading = true)
+            val contactedServer = catalogFlight.run(CATALOG_FLIGHT_KEY) { loadCatalog(forceRefresh) }
+            // A refresh that joined a load answered from the cache waits for it, then asks the server
+            // itself (concurrent refreshes join each other again here)
+            if (forceRefresh && !contactedServer) {
+                catalogFlight.run(CATALOG_FLIGHT_KEY) { loadCatalog(forceRefresh = true) }
+            }
+        }
+    }
+
+    // true when it went to the server, false when the cached catalog was fresh enough
+    private suspend fun loadCatalog(forceRefresh: Boolean): Boolean {
+        val cached = try {
+            productRepository.loadCached()
+        } catch (e: Exception) {
+            Log.e("MainViewModel", "Failed to read cached products", e)
+            Catalog.EMPTY
+        }
+        if (!cached.isEmpty) {
+            publishCatalog(cached, complete = true)
+        } else {
+            _state.update {
+                it.copy(loading = true, loadError = null, availableProductTypes = MakeupApi.KNOWN_PRODUCT_TYPES)
+            }
+        }
+
+        if (!forceRefresh && !cached.isEmpty && !productRepository.isStale()) return false
+
+        try {
+            // Nothing on screen yet -> show each parsed batch as it arrives.
+            // Otherwise patch the cached catalog with whatever changed on the server.
+            if (cached.isEmpty) {
+                val full = productRepository.refresh { soFar -> publishCatalog(soFar, complete = false) }
+                publishCatalog(full, complete = true)
+            } else {
+                productRepository.sync(cached)?.let { publishCatalog(it, complete = true) }
+            }
+            _state.update { it.copy(loading = false) }
+        } catch (e: Exception) {
+            // Whatever was already published (cache or streamed batches) stays on screen;
+            // only an empty grid gets an error with a retry button
+            val message = when (e) {
+                is CircuitOpenException -> "The product server isn't responding. Try again in a moment."
+                else -> "Couldn't load products. Check your connection and try again."
+            }
+            _state.update {
+                it.copy(loading = false, loadError = if (it.products.isEmpty()) message else null)
+            }
+            // Let WorkManager finish the job once the network is back
+            CatalogPrefetchWorker.requestRefresh(getApplication())
+            Log.e("MainViewModel", "Failed to fetch products", e)
+        }
+        return true
+    }
+
+    // Swap in a new catalog while keeping the user's filter selection.
+    // complete = false while a cold download is still streaming in.
+    private suspend fun publishCatalog(catalog: Catalog, complete: Boolean) {
+        // Until the full list is in, also offer the documented types so they can be filtered server-side
+        val productTypes = if (complete) {
+            catalog.productTypes
+        } else {
+            (catalog.productTypes + MakeupApi.KNOWN_PRODUCT_TYPES).distinct().sorted()
+        }
+        _state.update {
+            it.copy(
+                products = catalog.products,
+                loading = false,
+                loadError = null,
+                availableBrands = catalog.brands,
+                availableProductTypes = productTypes,
+                // An indexed catalog being replaced keeps its tags on offer until the new ones are known
+                availableTags = if (complete) it.availableTags else emptyList()
+            )
+        }
+        // Shown right away - brands and types are known without walking a snapshot-backed list,
+        // and until the lookups exist queries fall back to the plain list. A synced catalog replacing
+        // an indexed one skips that step, so the grid doesn't drop out of paging and back.
+        if (!complete || !catalogInput.value.indexed) catalogInput.value = CatalogInput(catalog, complete)
+        if (!complete) return
+
+        // Filter bitmaps, trigrams, ranges, sort orders, swatch tree and id lookup, off the main thread.
+        // Tags, price bounds and the paged grid follow once they are there.
+        val priceSign = withContext(Dispatchers.Default) {
+            catalog.buildLookups()
+            sharedPriceSign(catalog.products)
+        }
+        _state.update {
+            it.copy(
+                availableTags = catalog.tags,
+                priceBoundsCents = catalog.ranges.priceBoundsCents,
+                priceSign = priceSign
+            )
+        }
+        catalogInput.value = CatalogInput(catalog, complete = true, indexed = true)
+        refreshShadeMatches(catalog)
+    }
+
+    // The price bounds span the whole catalog, so a sign only goes next to them when every product
+    // that states one agrees - the API mixes $, £, € and others
+    private fun sharedPriceSign(products: List<Product>): String? {
+        var shared: String? = null
+        for (product in products) {
+            val sign = product.priceSign?.trim()
+            if (sign.isNullOrEmpty()) continue
+            if (shared == null) shared = sign else if (sign != shared) return null
+        }
+        return shared
+    }
+
+    // Shade Match tab reads precomputed matches; recompute them in the background when the catalog changed
+    private fun refreshShadeMatches(catalog: Catalog) {
+        shadeMatchJob?.cancel()
+        shadeMatchJob = viewModelScope.launch {
             try {
-                val products = api.getProducts()
-                val brands = products.mapNotNull { it.brand }.distinct().sorted()
-                val productTypes = products.mapNotNull { it.productType }.distinct().sorted()
-                _state.value = _state.value.copy(
-                    products = products,
-                    filteredProducts = products,
-                    loading = false,
-                    availableBrands = brands,
-                    availableProductTypes = productTypes
-                )
+                shadeMatchRepository.refreshIfNeeded(catalog)
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
-                _state.value = _state.value.copy(loading = false)
-                Log.e("MainViewModel", "Failed to fetch products", e)
+                Log.e("MainViewModel", "Failed to compute shade matches", e)
             }
         }
     }
 
+    // --- Search Logic ---
+    fun onSearchQueryChange(query: String) {
+        _state.update { it.copy(searchQuery = query) }
+        searchInput.value = query
+    }
+
+    @OptIn(FlowPreview::class)
+    private fun observeSearch() {
+        viewModelScope.launch {
+            combine(searchInput.debounce(SEARCH_DEBOUNCE_MILLIS), catalogInput) { query, input -> query.trim() to input }
+                .collectLatest { (query, input) -> searchResult.value = SearchResult(runSearch(query, input)) }
+        }
+    }
+
+    // FTS only covers the full catalog and its hits are mapped through the id lookup - until that is
+    // built the query pipeline falls back to plain text matching
+    private suspend fun runSearch(query: String, input: CatalogInput): IntArray? {
+        if (query.isEmpty() || !input.indexed) return null
+        return try {
+            val ranked = productRepository.search(query)
+            // Few or no exact/prefix hits -> likely a typo, append the closest fuzzy matches
+            if (ranked.size >= FUZZY_FALLBACK_BELOW) {
+                ranked
+            } else {
+                val catalog = input.catalog
+                val fuzzy = withContext(Dispatchers.Default) {
+                    catalog.trigrams.search(query, catalog.products).map { catalog.products[it].id }
+                }
+                (ranked.toList() + fuzzy).distinct().toIntArray()
+            }
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            Log.e("MainViewModel", "Search failed for '$query'", e)
+            IntArray(0)
+        }
+    }
+
     // --- Filter Logic ---
+    // Toggles only record the selection; observeQuery() turns it into results off the main thread
     fun toggleBrandFilter(brand: String) {
-        val currentBrands = _state.value.selectedBrands.toMutableSet()
-        if (currentBrands.contains(brand)) currentBrands.remove(brand) else currentBrands.add(brand)
-        _state.value = _state.value.copy(selectedBrands = currentBrands)
-        applyFilters()
+        _state.update { it.copy(selectedBrands = it.selectedBrands.toggled(brand)) }
     }
 
     fun toggleProductTypeFilter(productType: String) {
-        val currentTypes = _state.value.selectedProductTypes.toMutableSet()
-        if (currentTypes.contains(productType)) currentTypes.remove(productType) else currentTypes.add(productType)
-        _state.value = _state.value.copy(selectedProductTypes = currentTypes)
-        applyFilters()
+        _state.update { it.copy(selectedProductTypes = it.selectedProductTypes.toggled(productType)) }
+    }
+
+    fun toggleTagFilter(tag: String) {
+        _state.update { it.copy(selectedTags = it.selectedTags.toggled(tag)) }
     }
 
     fun clearFilters() {
-        _state.value = _state.value.copy(
-            selectedBrands = emptySet(),
-            selectedProductTypes = emptySet(),
-            filteredProducts = _state.value.products
+        _state.update {
+            it.copy(
+                selectedBrands = emptySet(),
+                selectedProductTypes = emptySet(),
+                selectedTags = emptySet(),
+                minPriceCents = null,
+                maxPriceCents = null,
+                minRating = null
+            )
+        }
+    }
+
+    // Called on every slider move - a bound at the edge of the catalog's range means "no bound",
+    // so products without a price only drop out once the range is actually narrowed
+    fun setPriceRange(minCents: Int, maxCents: Int) {
+        _state.update {
+            val bounds = it.priceBoundsCents
+            it.copy(
+                minPriceCents = minCents.takeIf { c -> bounds == null || c > bounds.first },
+                maxPriceCents = maxCents.takeIf { c -> bounds == null || c < bounds.last }
+            )
+        }
+    }
+
+    fun setMinRating(minRating: Double) {
+        _state.update { it.copy(minRating = minRating.takeIf { r -> r > 0.0 }) }
+    }
+
+    fun setSortKey(sortKey: SortKey) {
+        _state.update { it.copy(sortKey = sortKey) }
+    }
+
+    private fun <T> Set<T>.toggled(value: T): Set<T> = if (value in this) this - value else this + value
+
+    // Catalog + selection + search hits -> grid contents. Evaluated on Dispatchers.Default; a newer
+    // input cancels the evaluation in progress (mapLatest) and the UI only takes the newest result
+    // (conflate), so a burst of chip taps never blocks the main thread or lets an old result win.
+    @OptIn(ExperimentalCoroutinesApi::class)
+    private fun observeQuery() {
+        val query = _state
+            .map {
+                CatalogQuery(
+                    it.selectedBrands, it.selectedProductTypes, it.selectedTags, it.searchQuery, it.sortKey,
+                    it.minPriceCents, it.maxPriceCents, it.minRating
+                )
+            }
+            .distinctUntilChanged()
+        viewModelScope.launch {
+            combine(catalogInput, query, searchResult) { input, q, search -> Triple(input, q, search) }
+                .mapLatest { (input, q, search) -> evaluate(input, q, search.ids) }
+                .filterNotNull()
+                .conflate()
+                .collect { result -> publishResult(result) }
+        }
+    }
+
+    private suspend fun evaluate(input: CatalogInput, query: CatalogQuery, searchHits: IntArray?): CatalogQueryResult? {
+        if (input.indexed) {
+            return withContext(Dispatchers.Default) { CatalogQueryResult.indexed(input.catalog, query, searchHits) }
+        }
+        // Full catalog whose lookups are still being built: it's all here, no need for server slices
+        if (input.complete) {
+            return withContext(Dispatchers.Default) { CatalogQueryResult.listed(input.catalog.products, query) }
+        }
+        // Cold start with a filter: show the server-filtered slice(s) instead of waiting for the full list
+        val plan = CatalogQueryPlanner.plan(
+            fullCatalogAvailable = false,
+            brands = query.brands,
+            productTypes = query.productTypes
         )
+        if (plan is CatalogQueryPlanner.Plan.Remote) {
+            return try {
+                val results = coroutineScope {
+                    plan.slices.map { key -> async { productRepository.fetchSlice(key) } }.awaitAll()
+                }
+                // The API filters brand / type only, tags and text are applied here
+                withContext(Dispatchers.Default) {
+                    CatalogQueryResult.listed(results.flatten().distinctBy { it.id }, query)
+                }
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                Log.e("MainViewModel", "Failed to fetch filtered products", e)
+                null
+            }
+        }
+        return withContext(Dispatchers.Default) { CatalogQueryResult.listed(input.catalog.products, query) }
     }
 
-    private fun applyFilters() {
-        val filtered = _state.value.products.filter { product ->
-            val brandMatch = _state.value.selectedBrands.isEmpty() || _state.value.selectedBrands.contains(product.brand)
-            val typeMatch = _state.value.selectedProductTypes.isEmpty() || _state.value.selectedProductTypes.contains(product.productType)
-            brandMatch && typeMatch
+    private fun publishResult(result: CatalogQueryResult) {
+        when (result) {
+            is CatalogQueryResult.Indexed -> {
+                gridQuery.value = GridQuery(result.products, result.positions)
+                _state.update { it.copy(pagedGrid = true, facetCounts = result.facetCounts) }
+            }
+            is CatalogQueryResult.Listed -> _state.update {
+                it.copy(
+                    pagedGrid = false,
+                    filteredProducts = result.products,
+                    facetCounts = CatalogIndex.FacetCounts(),
+                    // A server slice can arrive before the first batch of a cold download
+                    loading = if (result.products.isNotEmpty()) false else it.loading
+                )
+            }
+        }
+    }
+
+    // --- Similar Shades ---
+    // Catalog swatches perceptually closest to a shade, from other products; the swatch index only
+    // exists for the full catalog, so nothing is suggested until it is built
+    suspend fun findSimilarShades(shade: ProductColor, excludeProductId: Int): List<SwatchMatch> {
+        val input = catalogInput.value
+        val argb = parseArgb(shade.hexValue)
+        if (!input.indexed || argb == null) return emptyList()
+        return withContext(Dispatchers.Default) {
+            input.catalog.nearestSwatches(argb, SIMILAR_SHADES, excludeProductId)
         }
-        _state.value = _state.value.copy(filteredProducts = filtered)
     }
 
     // --- Likes and Notes Logic ---
@@ -228,5 +522,17 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
     }
 
     fun getDisplayProducts(): List<Product> = _state.value.filteredProducts
-    fun hasActiveFilters(): Boolean = _state.value.selectedBrands.isNotEmpty() || _state.value.selectedProductTypes.isNotEmpty()
+    fun hasActiveFilters(): Boolean = _state.value.selectedBrands.isNotEmpty() ||
+        _state.value.selectedProductTypes.isNotEmpty() ||
+        _state.value.selectedTags.isNotEmpty() ||
+        _state.value.minPriceCents != null ||
+        _state.value.maxPriceCents != null ||
+        _state.value.minRating != null
+
+    companion object {
+        private const val CATALOG_FLIGHT_KEY = "catalog"
+        private const val SEARCH_DEBOUNCE_MILLIS = 200L
+        private const val FUZZY_FALLBACK_BELOW = 5
+        private const val SIMILAR_SHADES = 12
+    }
 }
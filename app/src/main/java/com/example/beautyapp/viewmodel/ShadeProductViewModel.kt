@@ -1,59 +1,134 @@
 package com.example.beautyapp.viewmodel
 
 import android.app.Application
+import android.net.Uri
 import android.util.Log
 import androidx.lifecycle.AndroidViewModel
 import androidx.lifecycle.LiveData
 import androidx.lifecycle.MutableLiveData
 import androidx.lifecycle.viewModelScope
-import com.example.beautyapp.data.MakeupDatabase  // ← CORRECTED!
+import com.example.beautyapp.data.MakeupDatabase
 import com.example.beautyapp.data.MakeupProduct  // ← CORRECTED!
 import com.example.beautyapp.data.Shade  // ← CORRECTED!
-import kotlinx.coroutines.Dispatchers
+import com.example.beautyapp.data.ShadeCatalogCache
+import com.example.beautyapp.data.catalog.ShadeMatch
+import com.example.beautyapp.data.catalog.ShadeMatchCategory
+import com.example.beautyapp.data.catalog.ShadeMatchRepository
+import com.example.beautyapp.utils.SkinToneExtractor
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.flatMapLatest
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.mapLatest
+import kotlinx.coroutines.flow.stateIn
 import kotlinx.coroutines.launch
 
 /*
 This file ShadeProductViewModel.kt responsible for managing data for Shade Select
 screen. It loads all the available skin shades from the database and provides them
 to the UI.
+Shades and their products come from the app-wide ShadeCatalogCache, so selecting a shade is a
+lookup: the selection is a single StateFlow and everything shown is derived from its latest value,
+so a fast series of taps always ends on the last shade tapped.
 */
 class ShadeProductViewModel(application: Application) : AndroidViewModel(application) {
-    private val db = MakeupDatabase.getDatabase(application)
-    private val shadeDao = db.shadeDao()
-    private val productDao = db.productDao()
+    private val shadeMatchRepository = ShadeMatchRepository.create(application)
 
-    private val _shades = MutableLiveData<List<Shade>>()
-    val shades: LiveData<List<Shade>> = _shades
+    private val selectedShadeId = MutableStateFlow<Int?>(null)
 
-    private val _selectedShade = MutableLiveData<Shade?>()
-    val selectedShade: LiveData<Shade?> = _selectedShade
+    // null until makeup.db has been loaded (normally already done by the startup warm-up)
+    private val shadeCatalog = ShadeCatalogCache.catalog
 
-    private val _products = MutableLiveData<List<MakeupProduct>>()
-    val products: LiveData<List<MakeupProduct>> = _products
+    val shades: StateFlow<List<Shade>> = shadeCatalog
+        .map { it?.shades.orEmpty() }
+        .stateIn(viewModelScope, SharingStarted.Eagerly, emptyList())
+
+    val selectedShade: StateFlow<Shade?> = combine(shadeCatalog, selectedShadeId) { catalog, id ->
+        id?.let { catalog?.shadeById(it) }
+    }.stateIn(viewModelScope, SharingStarted.Eagerly, null)
+
+    val products: StateFlow<List<MakeupProduct>> = combine(shadeCatalog, selectedShadeId) { catalog, id ->
+        if (catalog == null || id == null) emptyList() else catalog.productsFor(id)
+    }.stateIn(viewModelScope, SharingStarted.Eagerly, emptyList())
+
+    // Liked makeup.db products for the Profile tab (any shade, not just the selected one). Looked up
+    // by id with one IN query per chunk rather than filtering the whole table.
+    private val likedProductIds = MutableStateFlow<Set<Int>>(emptySet())
+
+    @OptIn(ExperimentalCoroutinesApi::class)
+    val likedProducts: StateFlow<List<MakeupProduct>> = likedProductIds
+        .mapLatest { ids ->
+            if (ids.isEmpty()) return@mapLatest emptyList()
+            val dao = MakeupDatabase.getDatabase(getApplication()).productDao()
+            ids.chunked(MAX_IDS_PER_QUERY).flatMap { dao.getProductsByIds(it) }
+        }
+        .stateIn(viewModelScope, SharingStarted.Eagerly, emptyList())
+
+    // Precomputed closest API catalog products for the selected shade, by category
+    @OptIn(ExperimentalCoroutinesApi::class)
+    val catalogMatches: StateFlow<Map<ShadeMatchCategory, List<ShadeMatch>>> = selectedShadeId
+        .flatMapLatest { id -> if (id == null) flowOf(emptyMap()) else shadeMatchRepository.observeMatches(id) }
+        .stateIn(viewModelScope, SharingStarted.Eagerly, emptyMap())
+
+    // Selfie analysis: the estimated tone (shown next to the shade it matched) and progress / errors
+    private val _skinTone = MutableLiveData<SkinToneExtractor.SkinTone?>()
+    val skinTone: LiveData<SkinToneExtractor.SkinTone?> = _skinTone
+
+    private val _analyzingSelfie = MutableLiveData(false)
+    val analyzingSelfie: LiveData<Boolean> = _analyzingSelfie
+
+    private val _selfieError = MutableLiveData<String?>()
+    val selfieError: LiveData<String?> = _selfieError
+    private var selfieJob: Job? = null
 
     companion object{
         private const val TAG= "ShadeProductViewModel"
+        // Stays under SQLite's 999 bind variables
+        private const val MAX_IDS_PER_QUERY = 500
     }
 
     init {
-        loadShades()
+        // No-op when the application already started it
+        ShadeCatalogCache.warmUp(application)
     }
 
-    private fun loadShades() {
-        viewModelScope.launch(Dispatchers.IO) {
-            val shadeList = shadeDao.getAllShades()
-            Log.d(TAG, "Loaded ${shadeList.size} shades from database")
-            _shades.postValue(shadeList)
+    // Estimate the skin tone of a picked photo, then run the normal flow for the closest shade
+    fun onSelfiePicked(uri: Uri) {
+        selfieJob?.cancel()
+        selfieJob = viewModelScope.launch {
+            _analyzingSelfie.value = true
+            _selfieError.value = null
+            try {
+                val shades = ShadeCatalogCache.get(getApplication()).shades
+                val tone = SkinToneExtractor.fromUri(getApplication(), uri, shades)
+                _skinTone.value = tone
+                when {
+                    tone == null -> _selfieError.value = "Couldn't find enough skin in that photo - try one in daylight, face filling the frame"
+                    tone.shade != null -> onShadeSelected(tone.shade)
+                }
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                Log.e(TAG, "Selfie analysis failed", e)
+                _selfieError.value = "Couldn't read that photo"
+            } finally {
+                _analyzingSelfie.value = false
+            }
         }
     }
 
+    fun setLikedProductIds(ids: Set<Int>) {
+        likedProductIds.value = ids
+    }
+
     fun onShadeSelected(shade: Shade) {
-        _selectedShade.value = shade
         Log.d(TAG, "Shade Selected: ${shade.description} (ID: ${shade.shadeId}")
-        viewModelScope.launch(Dispatchers.IO) {
-            val result = productDao.getProductsForShade(shade.shadeId)
-            Log.d(TAG, "Found ${result.size} products for shade ID ${shade.shadeId}.")
-            _products.postValue(result)
-        }
+        selectedShadeId.value = shade.shadeId
     }
-}
\ No newline at end of file
+}
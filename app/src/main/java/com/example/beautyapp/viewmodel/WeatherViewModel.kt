@@ -3,7 +3,13 @@ package com.example.beautyapp.viewmodel
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
 import com.example.beautyapp.data.weather.WeatherResponse
+import com.example.beautyapp.network.CircuitOpenException
+import com.example.beautyapp.network.LatencyBudget
+import com.example.beautyapp.network.Resilience
 import com.example.beautyapp.network.WeatherApiClient
+import com.example.beautyapp.utils.SingleFlight
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.launch
@@ -12,14 +18,36 @@ class WeatherViewModel : ViewModel() {
     private val _weatherState = MutableStateFlow<WeatherState>(WeatherState.Initial)
     val weatherState: StateFlow<WeatherState> = _weatherState
 
+    // Identical lookups share one request; a search for another city cancels the older one
+    private val weatherFlight = SingleFlight<String, WeatherResponse>(viewModelScope, "weather")
+    private var weatherJob: Job? = null
+
+    // First load of the Home tab - re-entering the tab keeps whatever is already shown
+    fun loadInitialWeather(cityName: String, apiKey: String) {
+        when (_weatherState.value) {
+            is WeatherState.Success, WeatherState.Loading -> return
+            else -> fetchWeather(cityName, apiKey)
+        }
+    }
+
     fun fetchWeather(cityName: String, apiKey: String) {
-        viewModelScope.launch {
+        val key = cityName.trim().lowercase()
+        weatherJob?.cancel()
+        weatherFlight.cancelOthers(key)
+        weatherJob = viewModelScope.launch {
             _weatherState.value = WeatherState.Loading
             try {
-                val weatherResponse = WeatherApiClient.apiService.getWeather(cityName, apiKey)
+                val weatherResponse = weatherFlight.run(key) {
+                    Resilience.hedged(LatencyBudget.WEATHER.hedgeAfterMillis) {
+                        WeatherApiClient.apiService.getWeather(cityName.trim(), apiKey)
+                    }
+                }
                 _weatherState.value = WeatherState.Success(weatherResponse)
+            } catch (e: CancellationException) {
+                throw e  // superseded by a newer search, which owns the state now
             } catch (e: Exception) {
                 val errorMessage = when {
+                    e is CircuitOpenException -> "Weather service unavailable. Try again shortly"
                     e.message?.contains("404") == true -> "City not found"
                     e.message?.contains("401") == true -> "Invalid API key"
                     e.message?.contains("Network") == true -> "Network error. Please check your connection"
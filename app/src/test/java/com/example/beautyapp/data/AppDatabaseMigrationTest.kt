@@ -0,0 +1,70 @@
+package com.example.beautyapp.data
+
+import android.app.Application
+import androidx.room.testing.MigrationTestHelper
+import androidx.test.platform.app.InstrumentationRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+// Version 2 (likes and notes, the last release) straight to the current schema. The helper checks
+// every table, index and foreign key against schemas/.../3.json; the rest checks what the user keeps.
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34], application = Application::class)
+class AppDatabaseMigrationTest {
+
+    @get:Rule
+    val helper = MigrationTestHelper(InstrumentationRegistry.getInstrumentation(), AppDatabase::class.java)
+
+    @Test
+    fun migrate2To3KeepsLikesAndNotes() {
+        helper.createDatabase(DB_NAME, 2).use { db ->
+            db.execSQL("INSERT INTO liked_products (id) VALUES (42)")
+            db.execSQL(
+                "INSERT INTO notes (id, title, content, imagePath, timestamp) " +
+                    "VALUES ('n1', 'Red lips', 'Matte, long wear', NULL, 1000)"
+            )
+        }
+
+        val db = helper.runMigrationsAndValidate(DB_NAME, 3, true, AppDatabase.MIGRATION_2_3)
+
+        db.query("SELECT id FROM liked_products").use { cursor ->
+            assertEquals(1, cursor.count)
+            cursor.moveToFirst()
+            assertEquals(42, cursor.getInt(0))
+        }
+        db.query("SELECT title, content, timestamp FROM notes WHERE id = 'n1'").use { cursor ->
+            cursor.moveToFirst()
+            assertEquals("Red lips", cursor.getString(0))
+            assertEquals("Matte, long wear", cursor.getString(1))
+            assertEquals(1000L, cursor.getLong(2))
+        }
+        // Catalog tables start empty, the first sync fills them
+        db.query("SELECT COUNT(*) FROM catalog_products").use { cursor ->
+            cursor.moveToFirst()
+            assertEquals(0, cursor.getInt(0))
+        }
+        db.close()
+    }
+
+    @Test
+    fun migratedSearchTableMatchesPrefixes() {
+        helper.createDatabase(DB_NAME, 2).close()
+        val db = helper.runMigrationsAndValidate(DB_NAME, 3, true, AppDatabase.MIGRATION_2_3)
+
+        db.execSQL("INSERT INTO catalog_search (rowid, name, brand) VALUES (7, 'Super Stay Matte Ink', 'maybelline')")
+
+        db.query("SELECT rowid FROM catalog_search WHERE catalog_search MATCH 'may*'").use { cursor ->
+            cursor.moveToFirst()
+            assertEquals(7, cursor.getInt(0))
+        }
+        db.close()
+    }
+
+    private companion object {
+        const val DB_NAME = "migration-test"
+    }
+}
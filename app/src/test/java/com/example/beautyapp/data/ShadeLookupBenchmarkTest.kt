@@ -0,0 +1,147 @@
+package com.example.beautyapp.data
+
+import android.app.Application
+import android.content.Context
+import androidx.room.Room
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.test.core.app.ApplicationProvider
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import kotlin.random.Random
+
+// makeup.db as the app opens it (createFromAsset), enlarged with synthetic shades and products, then
+// ProductDao.getProductsForShade's query timed through index_products_shade_id against the same
+// query forced to scan the table. Timings are printed, not asserted - they depend on the machine;
+// what is asserted is that the DAO's query uses the index and that both return the same rows.
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34], application = Application::class)
+class ShadeLookupBenchmarkTest {
+
+    private lateinit var context: Context
+    private lateinit var database: MakeupDatabase
+    private lateinit var db: SupportSQLiteDatabase
+    private lateinit var shadeIds: List<Int>
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        database = Room.databaseBuilder(context, MakeupDatabase::class.java, DB_NAME)
+            .createFromAsset("databases/makeup.db")
+            .fallbackToDestructiveMigration()
+            .allowMainThreadQueries()
+            .build()
+        db = database.openHelper.writableDatabase
+        enlarge()
+        shadeIds = db.query("SELECT shade_id FROM shades").use { cursor ->
+            List(cursor.count) { cursor.moveToNext(); cursor.getInt(0) }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        context.deleteDatabase(DB_NAME)
+    }
+
+    @Test
+    fun shadeLookupUsesTheIndex() {
+        val plan = db.query("EXPLAIN QUERY PLAN $INDEXED", arrayOf<Any>(shadeIds.first())).use { cursor ->
+            buildString { while (cursor.moveToNext()) append(cursor.getString(3)).append('\n') }
+        }
+
+        assertTrue(plan, plan.contains("index_products_shade_id"))
+    }
+
+    @Test
+    fun indexedLookupVsTableScan() {
+        val lookups = List(LOOKUPS) { shadeIds[Random(it).nextInt(shadeIds.size)] }
+        // Same rows either way, and the DAO returns them too
+        val shade = lookups.first()
+        assertEquals(ids(SCAN, shade), ids(INDEXED, shade))
+        assertEquals(ids(INDEXED, shade), runBlocking { database.productDao().getProductsForShade(shade) }.map { it.productId }.toSet())
+
+        // Warm-up: statement compilation and page cache for both
+        lookups.take(20).forEach { readAll(INDEXED, it); readAll(SCAN, it) }
+
+        val indexed = time { lookups.forEach { readAll(INDEXED, it) } }
+        val scanned = time { lookups.forEach { readAll(SCAN, it) } }
+
+        println(
+            "makeup.db ${shadeIds.size} shades, ${count("products")} products, $LOOKUPS lookups: " +
+                "shade_id index ${ms(indexed)} ms (${us(indexed / LOOKUPS)} us each), " +
+                "table scan ${ms(scanned)} ms (${us(scanned / LOOKUPS)} us each)"
+        )
+    }
+
+    // Synthetic rows in the shape of the real ones, all in one transaction
+    private fun enlarge() {
+        db.beginTransaction()
+        try {
+            val shade = db.compileStatement("INSERT INTO shades (hex_code, undertone, description) VALUES (?, ?, ?)")
+            repeat(EXTRA_SHADES) { i ->
+                shade.bindString(1, "#%06X".format(Random(i).nextInt(0x1000000)))
+                shade.bindString(2, UNDERTONES[i % UNDERTONES.size])
+                shade.bindString(3, "Synthetic shade $i")
+                shade.executeInsert()
+            }
+            db.execSQL(
+                "INSERT INTO products (shade_id, type, brand, name, image_url, price, description) " +
+                    "SELECT s.shade_id, 'foundation', 'brand ' || (s.shade_id % 40), 'Product ' || s.shade_id || '-' || n.n, " +
+                    "'https://example.com/' || s.shade_id || '/' || n.n || '.jpg', 9.99 + n.n, 'Synthetic product' " +
+                    "FROM shades s CROSS JOIN (${(1..PRODUCTS_PER_SHADE).joinToString(" UNION ALL ") { "SELECT $it AS n" }}) n"
+            )
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    private fun readAll(sql: String, shadeId: Int): Int = db.query(sql, arrayOf<Any>(shadeId)).use { cursor ->
+        var rows = 0
+        while (cursor.moveToNext()) {
+            cursor.getString(4)  // read a column, like the DAO would
+            rows++
+        }
+        rows
+    }
+
+    private fun ids(sql: String, shadeId: Int): Set<Int> = db.query(sql, arrayOf<Any>(shadeId)).use { cursor ->
+        val column = cursor.getColumnIndexOrThrow("product_id")
+        buildSet { while (cursor.moveToNext()) add(cursor.getInt(column)) }
+    }
+
+    private fun count(table: String): Int = db.query("SELECT COUNT(*) FROM $table").use { cursor ->
+        cursor.moveToFirst()
+        cursor.getInt(0)
+    }
+
+    private inline fun time(block: () -> Unit): Long {
+        val start = System.nanoTime()
+        block()
+        return System.nanoTime() - start
+    }
+
+    private fun ms(nanos: Long): String = "%.1f".format(nanos / 1_000_000.0)
+
+    private fun us(nanos: Long): String = "%.1f".format(nanos / 1_000.0)
+
+    private companion object {
+        const val DB_NAME = "makeup-benchmark"
+        const val EXTRA_SHADES = 2_000
+        const val PRODUCTS_PER_SHADE = 25  // ~50k products, vs 24 in the shipped asset
+        const val LOOKUPS = 200
+
+        // ProductDao.getProductsForShade, and the same query with the index ruled out
+        const val INDEXED = "SELECT * FROM products WHERE shade_id = ?"
+        const val SCAN = "SELECT * FROM products NOT INDEXED WHERE shade_id = ?"
+
+        val UNDERTONES = listOf("warm", "cool", "neutral")
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class CatalogCompactorTest {
+
+    @Test
+    fun keepsWhatTheAppReadsAndDropsTheRest() {
+        val compact = CatalogCompactor().compact(product(1))
+
+        assertEquals(
+            product(1).copy(
+                currency = null,
+                productLink = null,
+                websiteLink = null,
+                category = null,
+                productApiUrl = null,
+                apiFeaturedImage = null,
+                productColors = listOf(ProductColor("#C0392B", "Red"), ProductColor("#000000", "Black"), ProductColor(null, "Two tone"))
+            ),
+            compact
+        )
+    }
+
+    @Test
+    fun colorsArePackedIntoArgbInts() {
+        val colors = CatalogCompactor().compact(product(1)).productColors
+
+        assertTrue(colors is PackedColors)
+        colors as PackedColors
+        assertArrayEquals(intArrayOf(0xFFC0392B.toInt(), 0xFF000000.toInt(), 0), colors.argb)
+        // Read back as "#RRGGBB"; a hex code that doesn't parse reads back as null
+        assertEquals(
+            listOf(ProductColor("#C0392B", "Red"), ProductColor("#000000", "Black"), ProductColor(null, "Two tone")),
+            colors
+        )
+    }
+
+    @Test
+    fun missingListsStayNullAndEmptyOnesEmpty() {
+        val compactor = CatalogCompactor()
+
+        val missing = compactor.compact(product(1).copy(tagList = null, productColors = null))
+        assertNull(missing.tagList)
+        assertNull(missing.productColors)
+
+        val empty = compactor.compact(product(2).copy(tagList = emptyList(), productColors = emptyList()))
+        assertEquals(emptyList<String>(), empty.tagList)
+        assertEquals(emptyList<ProductColor>(), empty.productColors)
+    }
+
+    @Test
+    fun sharesRepeatedStrings() {
+        val compactor = CatalogCompactor()
+        // Fresh String instances, like the parser produces
+        val a = compactor.compact(product(1))
+        val b = compactor.compact(product(2))
+
+        assertSame(a.brand, b.brand)
+        assertSame(a.productType, b.productType)
+        assertSame(a.tagList!![0], b.tagList!![0])
+        assertSame((a.productColors as PackedColors).names[0], (b.productColors as PackedColors).names[0])
+    }
+
+    @Test
+    fun packedCatalogIsSmaller() {
+        val raw = List(200) { product(it) }
+        val compact = CatalogCompactor().compactAll(raw)
+
+        assertTrue(CatalogHeapReport.estimateBytes(compact) < CatalogHeapReport.estimateBytes(raw) * 3 / 4)
+    }
+
+    private fun product(id: Int): Product = Product(
+        id = id,
+        brand = String("maybelline".toCharArray()),
+        name = "Super Stay $id",
+        price = "9.99",
+        priceSign = "$",
+        currency = String("USD".toCharArray()),
+        imageLink = "https://example.com/$id.jpg",
+        productLink = "https://example.com/products/$id",
+        websiteLink = String("https://www.maybelline.com".toCharArray()),
+        description = "Long-wear liquid lipstick",
+        rating = 4.5,
+        category = String("liquid".toCharArray()),
+        productType = String("lipstick".toCharArray()),
+        tagList = listOf(String("vegan".toCharArray())),
+        createdAt = "2023-12-01T00:00:00.000Z",
+        updatedAt = "2024-01-01T00:00:00.000Z",
+        productApiUrl = "https://makeup-api.herokuapp.com/api/v1/products/$id.json",
+        apiFeaturedImage = "//s3.amazonaws.com/products/$id.png",
+        productColors = listOf(
+            ProductColor(String("#C0392B".toCharArray()), String("Red".toCharArray())),
+            ProductColor("#000000", "Black"),
+            ProductColor("#C0392B, #000000", "Two tone")
+        )
+    )
+}
@@ -0,0 +1,127 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import kotlin.random.Random
+
+// A catalog patched with applyDelta() must answer every lookup exactly like one rebuilt from scratch
+class CatalogDeltaTest {
+
+    private val brands = listOf("maybelline", "nyx", "revlon", "l'oreal", "clinique")
+    private val types = listOf("lipstick", "foundation", "blush", "mascara")
+    private val tagPool = listOf("vegan", "natural", "organic", "cruelty free", "gluten free")
+    private val names = listOf("Super Stay", "Fit Me", "Colossal", "Color Riche", "Lash Paradise", "Soft Matte")
+
+    @Test
+    fun deltaMatchesFullRebuild() {
+        val random = Random(3)
+        repeat(20) { round ->
+            val current = List(300) { product(it + 1, random) }
+            val previous = Catalog.of(current).apply { buildLookups() }
+
+            val deleted = current.map { it.id }.shuffled(random).take(random.nextInt(0, 40)).toSet()
+            val updated = current.map { it.id }.filter { it !in deleted }.shuffled(random).take(random.nextInt(0, 40))
+                .associateWith { product(it, random) }
+            val added = List(random.nextInt(0, 30)) { product(1000 + round * 100 + it, random) }
+            // Same shape CatalogSyncEngine produces: order kept, updates in place, new rows appended
+            val merged = current.filter { it.id !in deleted }.map { updated[it.id] ?: it } + added
+
+            val patched = previous.applyDelta(merged, updated.keys + added.map { it.id }, deleted)
+            val rebuilt = Catalog.of(merged)
+
+            assertSameLookups(rebuilt, patched)
+        }
+    }
+
+    @Test
+    fun lookupsNotBuiltYetAreBuiltLazily() {
+        val random = Random(11)
+        val current = List(50) { product(it + 1, random) }
+        val previous = Catalog.of(current)  // nothing forced
+        val merged = current.drop(5) + product(500, random)
+
+        val patched = previous.applyDelta(merged, listOf(500), current.take(5).map { it.id })
+
+        assertSameLookups(Catalog.of(merged), patched)
+    }
+
+    @Test
+    fun filterValueLeftWithoutProductsIsDropped() {
+        val only = product(1, Random(1)).copy(brand = "rare brand", tagList = listOf("one of a kind"))
+        val other = product(2, Random(2)).copy(brand = "nyx", tagList = listOf("vegan"))
+        val previous = Catalog.of(listOf(only, other)).apply { buildLookups() }
+
+        val patched = previous.applyDelta(listOf(other), emptyList(), listOf(1))
+
+        assertEquals(listOf("nyx"), patched.brands)
+        assertEquals(listOf("vegan"), patched.tags)
+    }
+
+    private fun assertSameLookups(expected: Catalog, actual: Catalog) {
+        assertEquals(expected.brands, actual.brands)
+        assertEquals(expected.productTypes, actual.productTypes)
+        assertEquals(expected.tags, actual.tags)
+
+        for (brand in expected.brands) {
+            assertArrayEquals(expected.index.match(setOf(brand), emptySet(), emptySet()), actual.index.match(setOf(brand), emptySet(), emptySet()))
+        }
+        for (type in expected.productTypes) {
+            assertArrayEquals(expected.index.match(emptySet(), setOf(type), emptySet()), actual.index.match(emptySet(), setOf(type), emptySet()))
+        }
+        for (tag in expected.tags) {
+            assertArrayEquals(expected.index.match(emptySet(), emptySet(), setOf(tag)), actual.index.match(emptySet(), emptySet(), setOf(tag)))
+        }
+
+        assertEquals(expected.ranges.priceBoundsCents, actual.ranges.priceBoundsCents)
+        for ((min, max) in listOf(null to null, 500 to 1500, 1000 to null, null to 800)) {
+            assertArrayEquals(expected.ranges.priceBitmap(min, max).toPositions(), actual.ranges.priceBitmap(min, max).toPositions())
+        }
+        for (minRating in listOf(0.0, 2.5, 4.0)) {
+            assertArrayEquals(expected.ranges.ratingBitmap(minRating).toPositions(), actual.ranges.ratingBitmap(minRating).toPositions())
+        }
+
+        val selection = expected.index.matchBitmap(setOf(brands[0], brands[1]), emptySet(), emptySet())
+        for (key in SortKey.entries) {
+            assertArrayEquals(key.name, expected.sortOrders.sorted(key, null), actual.sortOrders.sorted(key, null))
+            assertArrayEquals(key.name, expected.sortOrders.sorted(key, selection), actual.sortOrders.sorted(key, selection))
+        }
+
+        for (query in listOf("maybeline", "colosal", "fit me", "loreal", "nyx")) {
+            assertArrayEquals(query, expected.trigrams.search(query, expected.products), actual.trigrams.search(query, actual.products))
+        }
+
+        expected.products.forEachIndexed { position, product -> assertEquals(position, actual.positionOf(product.id)) }
+        assertArrayEquals(expected.swatches.offsets, actual.swatches.offsets)
+        for (swatch in 0 until expected.swatches.size) {
+            assertEquals(expected.swatches.argbAt(swatch), actual.swatches.argbAt(swatch))
+        }
+    }
+
+    // Prices / ratings / dates repeat a lot on purpose, so sort ties are exercised
+    private fun product(id: Int, random: Random): Product = Product(
+        id = id,
+        brand = brands.random(random).takeIf { random.nextInt(10) > 0 },
+        name = names.random(random),
+        price = if (random.nextInt(8) == 0) null else "${random.nextInt(3, 25)}.${random.nextInt(0, 2) * 50}",
+        priceSign = "$",
+        currency = null,
+        imageLink = null,
+        productLink = null,
+        websiteLink = null,
+        description = null,
+        rating = if (random.nextInt(4) == 0) null else random.nextInt(0, 11) / 2.0,
+        category = null,
+        productType = types.random(random),
+        tagList = tagPool.shuffled(random).take(random.nextInt(0, 3)),
+        createdAt = if (random.nextInt(6) == 0) null else "2023-0${random.nextInt(1, 10)}-01T00:00:00.000Z",
+        updatedAt = null,
+        productApiUrl = null,
+        apiFeaturedImage = null,
+        productColors = List(random.nextInt(0, 4)) {
+            ProductColor("#%06X".format(random.nextInt(0x1000000)), null)
+        }
+    )
+}
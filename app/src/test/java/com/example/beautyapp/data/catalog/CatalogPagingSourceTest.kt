@@ -0,0 +1,132 @@
+package com.example.beautyapp.data.catalog
+
+import androidx.paging.PagingConfig
+import androidx.paging.PagingSource.LoadParams
+import androidx.paging.PagingSource.LoadResult
+import androidx.paging.PagingState
+import com.example.beautyapp.data.Product
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class CatalogPagingSourceTest {
+
+    private val products = List(100) { product(it + 1) }
+    private val config = PagingConfig(pageSize = 20, initialLoadSize = 40, enablePlaceholders = true)
+
+    @Test
+    fun refreshFromStart() = runBlocking {
+        val page = load(CatalogPagingSource(products, null), LoadParams.Refresh(null, 40, true))
+
+        assertEquals((1..40).toList(), page.data.map { it.id })
+        assertNull(page.prevKey)
+        assertEquals(40, page.nextKey)
+        assertEquals(0, page.itemsBefore)
+        assertEquals(60, page.itemsAfter)
+    }
+
+    @Test
+    fun appendContinuesAtNextKeyAndStopsAtEnd() = runBlocking {
+        val source = CatalogPagingSource(products, null)
+
+        val middle = load(source, LoadParams.Append(40, 20, true))
+        assertEquals((41..60).toList(), middle.data.map { it.id })
+        assertEquals(40, middle.prevKey)
+        assertEquals(60, middle.nextKey)
+
+        // Last page is short and has no next key
+        val last = load(source, LoadParams.Append(90, 20, true))
+        assertEquals((91..100).toList(), last.data.map { it.id })
+        assertEquals(90, last.prevKey)
+        assertNull(last.nextKey)
+        assertEquals(0, last.itemsAfter)
+    }
+
+    @Test
+    fun prependLoadsTheItemsBeforeTheKey() = runBlocking {
+        val source = CatalogPagingSource(products, null)
+
+        val page = load(source, LoadParams.Prepend(60, 20, true))
+        assertEquals((41..60).toList(), page.data.map { it.id })
+        assertEquals(40, page.prevKey)
+        assertEquals(60, page.nextKey)
+        assertEquals(40, page.itemsBefore)
+
+        // Near the start the page is cut short at position 0 and has no previous key
+        val first = load(source, LoadParams.Prepend(10, 20, true))
+        assertEquals((1..10).toList(), first.data.map { it.id })
+        assertNull(first.prevKey)
+        assertEquals(10, first.nextKey)
+        assertEquals(0, first.itemsBefore)
+    }
+
+    @Test
+    fun refreshPastTheEndStillLoadsTheLastPage() = runBlocking {
+        // e.g. a refresh key kept from the unfiltered grid, applied to a 30-item filter result
+        val source = CatalogPagingSource(products, IntArray(30) { it })
+
+        val page = load(source, LoadParams.Refresh(80, 20, true))
+
+        assertEquals((11..30).toList(), page.data.map { it.id })
+        assertEquals(10, page.itemsBefore)
+        assertNull(page.nextKey)
+    }
+
+    @Test
+    fun positionsPickAndOrderTheProducts() = runBlocking {
+        val source = CatalogPagingSource(products, intArrayOf(9, 4, 0, 99))
+
+        val page = load(source, LoadParams.Refresh(null, 40, true))
+
+        assertEquals(listOf(10, 5, 1, 100), page.data.map { it.id })
+        assertNull(page.nextKey)
+        assertEquals(0, page.itemsAfter)
+    }
+
+    @Test
+    fun emptySelectionLoadsEmptyPage() = runBlocking {
+        val page = load(CatalogPagingSource(products, IntArray(0)), LoadParams.Refresh(null, 40, true))
+
+        assertEquals(0, page.data.size)
+        assertNull(page.prevKey)
+        assertNull(page.nextKey)
+    }
+
+    @Test
+    fun refreshKeyCentersInitialLoadOnAnchor() {
+        val source = CatalogPagingSource(products, null)
+
+        assertEquals(50, source.getRefreshKey(state(anchor = 70)))
+        assertEquals(0, source.getRefreshKey(state(anchor = 5)))  // never before the first item
+        assertNull(source.getRefreshKey(state(anchor = null)))
+    }
+
+    private suspend fun load(source: CatalogPagingSource, params: LoadParams<Int>): LoadResult.Page<Int, Product> =
+        source.load(params) as LoadResult.Page<Int, Product>
+
+    private fun state(anchor: Int?): PagingState<Int, Product> =
+        PagingState(pages = emptyList(), anchorPosition = anchor, config = config, leadingPlaceholderCount = 0)
+
+    private fun product(id: Int): Product = Product(
+        id = id,
+        brand = null,
+        name = "Product $id",
+        price = null,
+        priceSign = null,
+        currency = null,
+        imageLink = null,
+        productLink = null,
+        websiteLink = null,
+        description = null,
+        rating = null,
+        category = null,
+        productType = null,
+        tagList = null,
+        createdAt = null,
+        updatedAt = null,
+        productApiUrl = null,
+        apiFeaturedImage = null,
+        productColors = null
+    )
+}
@@ -0,0 +1,109 @@
+package com.example.beautyapp.data.catalog
+
+import android.app.Application
+import android.content.Context
+import android.util.Log
+import androidx.test.core.app.ApplicationProvider
+import androidx.work.Configuration
+import androidx.work.NetworkType
+import androidx.work.WorkInfo
+import androidx.work.WorkManager
+import androidx.work.testing.SynchronousExecutor
+import androidx.work.testing.WorkManagerTestInitHelper
+import com.example.beautyapp.data.catalog.CatalogPrefetchWorker.Plan
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.concurrent.TimeUnit
+
+// Scheduling only: the test WorkManager never runs a job whose constraints the test driver hasn't
+// marked as met, so no download is attempted here. A plain Application stands in for
+// BeautyApplication, which would schedule and preconnect on its own.
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [34], application = Application::class)
+class CatalogPrefetchWorkerTest {
+
+    private lateinit var context: Context
+    private lateinit var workManager: WorkManager
+
+    @Before
+    fun setUp() {
+        context = ApplicationProvider.getApplicationContext()
+        val config = Configuration.Builder()
+            .setMinimumLoggingLevel(Log.DEBUG)
+            .setExecutor(SynchronousExecutor())
+            .build()
+        WorkManagerTestInitHelper.initializeTestWorkManager(context, config)
+        workManager = WorkManager.getInstance(context)
+    }
+
+    @Test
+    fun periodicRunNeedsUnmeteredNetworkAndBattery() {
+        val spec = CatalogPrefetchWorker.periodicRequest().workSpec
+
+        assertEquals(NetworkType.UNMETERED, spec.constraints.requiredNetworkType)
+        assertTrue(spec.constraints.requiresBatteryNotLow())
+        assertTrue(spec.isPeriodic)
+        assertEquals(TimeUnit.HOURS.toMillis(12), spec.intervalDuration)
+    }
+
+    @Test
+    fun onDemandRefreshRunsOnAnyConnection() {
+        val spec = CatalogPrefetchWorker.refreshRequest(force = true).workSpec
+
+        assertEquals(NetworkType.CONNECTED, spec.constraints.requiredNetworkType)
+        assertFalse(spec.constraints.requiresBatteryNotLow())
+        assertTrue(spec.input.getBoolean(CatalogPrefetchWorker.KEY_FORCE, false))
+        assertFalse(CatalogPrefetchWorker.refreshRequest(force = false).workSpec.input.getBoolean(CatalogPrefetchWorker.KEY_FORCE, true))
+    }
+
+    @Test
+    fun schedulingAgainKeepsThePeriodicRun() {
+        CatalogPrefetchWorker.schedule(context)
+        val first = uniqueWork(CatalogPrefetchWorker.PERIODIC_WORK).single()
+
+        CatalogPrefetchWorker.schedule(context)
+        val again = uniqueWork(CatalogPrefetchWorker.PERIODIC_WORK).single()
+
+        assertEquals(WorkInfo.State.ENQUEUED, again.state)
+        assertEquals(first.id, again.id)
+    }
+
+    @Test
+    fun pendingRefreshCoversLaterRequests() {
+        CatalogPrefetchWorker.requestRefresh(context)
+        val first = uniqueWork(CatalogPrefetchWorker.ONE_OFF_WORK).single()
+
+        CatalogPrefetchWorker.requestRefresh(context)
+        CatalogPrefetchWorker.requestRefresh(context, force = false)
+
+        val pending = uniqueWork(CatalogPrefetchWorker.ONE_OFF_WORK).single()
+        assertEquals(WorkInfo.State.ENQUEUED, pending.state)
+        assertEquals(first.id, pending.id)
+    }
+
+    @Test
+    fun periodicAndOnDemandWorkAreIndependent() {
+        CatalogPrefetchWorker.schedule(context)
+        CatalogPrefetchWorker.requestRefresh(context)
+
+        assertEquals(1, uniqueWork(CatalogPrefetchWorker.PERIODIC_WORK).size)
+        assertEquals(1, uniqueWork(CatalogPrefetchWorker.ONE_OFF_WORK).size)
+    }
+
+    @Test
+    fun planDependsOnCacheStalenessAndForce() {
+        assertEquals(Plan.FULL_DOWNLOAD, CatalogPrefetchWorker.planFor(force = false, hasCache = false, isStale = true))
+        assertEquals(Plan.FULL_DOWNLOAD, CatalogPrefetchWorker.planFor(force = true, hasCache = false, isStale = false))
+        assertEquals(Plan.USE_CACHED, CatalogPrefetchWorker.planFor(force = false, hasCache = true, isStale = false))
+        assertEquals(Plan.SYNC, CatalogPrefetchWorker.planFor(force = false, hasCache = true, isStale = true))
+        assertEquals(Plan.SYNC, CatalogPrefetchWorker.planFor(force = true, hasCache = true, isStale = false))
+    }
+
+    private fun uniqueWork(name: String): List<WorkInfo> = workManager.getWorkInfosForUniqueWork(name).get()
+}
@@ -0,0 +1,93 @@
+package com.example.beautyapp.data.catalog
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+class CatalogSearchTest {
+
+    @Test
+    fun everyWordBecomesAPrefixTerm() {
+        assertEquals("red* lip*", CatalogSearch.toMatchQuery("Red lip"))
+        assertEquals("super* stay* 24h*", CatalogSearch.toMatchQuery("  Super   Stay 24H "))
+        assertEquals("crème*", CatalogSearch.toMatchQuery("Crème"))
+    }
+
+    @Test
+    fun ftsSyntaxIsStripped() {
+        // Quotes, column filters, NEAR/, leading '-' and '*' would otherwise change or break the MATCH
+        assertEquals("lip* gloss*", CatalogSearch.toMatchQuery("\"lip\" -gloss*"))
+        assertEquals("name* red*", CatalogSearch.toMatchQuery("name:red"))
+        assertEquals("red* near* 2* lip*", CatalogSearch.toMatchQuery("red NEAR/2 lip"))
+        // Same split as the unicode61 tokenizer, which stores l'oreal as "l" + "oreal"
+        assertEquals("l* oreal*", CatalogSearch.toMatchQuery("L'Oreal"))
+    }
+
+    @Test
+    fun nothingSearchableIsNull() {
+        assertNull(CatalogSearch.toMatchQuery(""))
+        assertNull(CatalogSearch.toMatchQuery("   "))
+        assertNull(CatalogSearch.toMatchQuery("*-\"():"))
+    }
+
+    @Test
+    fun nameMatchOutranksDescriptionMatch() {
+        // One phrase; columns name, brand, description, tags; the term is in 10 rows everywhere
+        val inDescription = hit(1, phrase(description = 1 to 10))
+        val inName = hit(2, phrase(name = 1 to 10))
+        val inBrand = hit(3, phrase(brand = 1 to 10))
+
+        assertArrayEquals(intArrayOf(2, 3, 1), CatalogSearch.rank(listOf(inDescription, inName, inBrand)))
+    }
+
+    @Test
+    fun rareTermOutranksCommonOne() {
+        val common = hit(1, phrase(name = 1 to 500))
+        val rare = hit(2, phrase(name = 1 to 3))
+
+        assertArrayEquals(intArrayOf(2, 1), CatalogSearch.rank(listOf(common, rare)))
+    }
+
+    @Test
+    fun moreHitsAndMorePhrasesScoreHigher() {
+        val once = hit(1, phrase(name = 1 to 10), phrase())
+        val twice = hit(2, phrase(name = 2 to 10), phrase())
+        val bothWords = hit(3, phrase(name = 1 to 10), phrase(tags = 1 to 10))
+
+        assertArrayEquals(intArrayOf(2, 3, 1), CatalogSearch.rank(listOf(once, twice, bothWords)))
+    }
+
+    @Test
+    fun equalScoresFollowCatalogPosition() {
+        // In id order, the way FTS returns them, but not in catalog order
+        val positions = intArrayOf(3, 0, 4, 1, 2)
+        val hits = (1..5).map { hit(it, phrase(brand = 1 to 50), position = positions[it - 1]) }
+
+        assertArrayEquals(intArrayOf(2, 4, 5, 1, 3), CatalogSearch.rank(hits))
+        assertArrayEquals(IntArray(0), CatalogSearch.rank(emptyList()))
+    }
+
+    // Per column: hits in this row to rows with hits ("hits in all rows" isn't used by the score)
+    private fun phrase(
+        name: Pair<Int, Int> = 0 to 0,
+        brand: Pair<Int, Int> = 0 to 0,
+        description: Pair<Int, Int> = 0 to 0,
+        tags: Pair<Int, Int> = 0 to 0
+    ): List<Pair<Int, Int>> = listOf(name, brand, description, tags)
+
+    // matchinfo('pcx') blob as SQLite hands it back: native-order ints
+    private fun hit(id: Int, vararg phrases: List<Pair<Int, Int>>, position: Int = id): SearchHit {
+        val columns = 4
+        val buffer = ByteBuffer.allocate(4 * (2 + 3 * phrases.size * columns)).order(ByteOrder.nativeOrder())
+        buffer.putInt(phrases.size).putInt(columns)
+        for (phrase in phrases) {
+            for ((hitsInRow, rowsWithHits) in phrase) {
+                buffer.putInt(hitsInRow).putInt(hitsInRow * rowsWithHits).putInt(rowsWithHits)
+            }
+        }
+        return SearchHit(id, position, buffer.array())
+    }
+}
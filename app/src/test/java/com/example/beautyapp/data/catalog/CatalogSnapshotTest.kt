@@ -0,0 +1,111 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.file.Files
+
+// A snapshot that doesn't add up must be rejected by open(), never blow up later in product()
+class CatalogSnapshotTest {
+
+    private val dir = Files.createTempDirectory("catalog-snapshot-test").toFile()
+    private val file = File(dir, CatalogSnapshot.FILE_NAME)
+
+    private val products = listOf(
+        product(1, "maybelline", "Fit Me", listOf("vegan"), listOf(ProductColor("#C0392B", "Red"))),
+        product(2, "nyx", null, emptyList(), emptyList()),
+        product(3, "maybelline", "Colossal", listOf("vegan", "natural"), listOf(ProductColor("#000000", null)))
+    )
+
+    @After
+    fun tearDown() {
+        dir.deleteRecursively()
+    }
+
+    @Test
+    fun roundTrips() {
+        CatalogSnapshot.write(file, products)
+
+        val snapshot = CatalogSnapshot.open(file)!!
+
+        assertEquals(products, snapshot.products)
+        assertEquals(listOf("maybelline", "nyx"), snapshot.brands())
+    }
+
+    @Test
+    fun missingOrTruncatedFileIsRejected() {
+        assertNull(CatalogSnapshot.open(file))
+
+        CatalogSnapshot.write(file, products)
+        RandomAccessFile(file, "rw").use { it.setLength(it.length() - 4) }
+
+        assertNull(CatalogSnapshot.open(file))
+    }
+
+    @Test
+    fun corruptHeaderCountsAreRejected() {
+        // productCount, stringCount, colorCount, tagCount: negative, huge and off by one
+        for (offset in listOf(8, 12, 16, 20)) {
+            for (value in listOf(-1, Int.MAX_VALUE, Int.MAX_VALUE / 4 + 1)) {
+                CatalogSnapshot.write(file, products)
+                overwriteInt(offset, value)
+                assertNull("header int at $offset = $value", CatalogSnapshot.open(file))
+            }
+        }
+    }
+
+    @Test
+    fun offsetsAndIndexesOutsideTheirSectionsAreRejected() {
+        CatalogSnapshot.write(file, products)
+        val stringCount = readInt(12)
+        val recordsStart = 24 + (stringCount + 1) * 4 + readInt(24 + stringCount * 4)
+        val recordBytes = 4 + 15 * 4 + 8 + 4 * 4
+        val corruptions = listOf(
+            24 + 4 to -5,                                            // string offset going backwards
+            recordsStart + 4 to stringCount,                         // brand index past the last string
+            recordsStart + recordBytes + 4 + 15 * 4 + 8 to 1_000,    // color range of product 2
+            recordsStart + 4 + 15 * 4 + 8 + 12 to 1_000_000          // tag count of product 1
+        )
+        for ((offset, value) in corruptions) {
+            CatalogSnapshot.write(file, products)
+            overwriteInt(offset, value)
+            assertNull("int at $offset = $value", CatalogSnapshot.open(file))
+        }
+    }
+
+    private fun readInt(offset: Int): Int = RandomAccessFile(file, "r").use { it.seek(offset.toLong()); it.readInt() }
+
+    private fun overwriteInt(offset: Int, value: Int) {
+        RandomAccessFile(file, "rw").use {
+            it.seek(offset.toLong())
+            it.writeInt(value)
+        }
+    }
+
+    private fun product(id: Int, brand: String?, name: String?, tags: List<String>, colors: List<ProductColor>) = Product(
+        id = id,
+        brand = brand,
+        name = name,
+        price = "9.99",
+        priceSign = "$",
+        currency = "USD",
+        imageLink = null,
+        productLink = null,
+        websiteLink = null,
+        description = null,
+        rating = if (id == 2) null else 4.5,
+        category = null,
+        productType = "lipstick",
+        tagList = tags,
+        createdAt = null,
+        updatedAt = null,
+        productApiUrl = null,
+        apiFeaturedImage = null,
+        productColors = colors
+    )
+}
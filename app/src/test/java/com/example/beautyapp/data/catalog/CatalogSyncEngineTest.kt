@@ -0,0 +1,203 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.network.MakeupApiService
+import com.example.beautyapp.network.NetworkModule
+import com.squareup.moshi.Types
+import kotlinx.coroutines.runBlocking
+import okhttp3.Cache
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import retrofit2.Retrofit
+import retrofit2.converter.moshi.MoshiConverterFactory
+import java.io.File
+import java.nio.file.Files
+
+// Delta sync against a MockWebServer standing in for the Makeup API, with an in-memory CatalogDao
+class CatalogSyncEngineTest {
+
+    private val server = MockWebServer()
+    private lateinit var cacheDir: File
+    private lateinit var api: MakeupApiService
+    private val dao = FakeCatalogDao()
+    private var now = 1_000L
+    private val engine = CatalogSyncEngine(dao) { now }
+
+    private val listAdapter = NetworkModule.moshi.adapter<List<Product>>(
+        Types.newParameterizedType(List::class.java, Product::class.java)
+    )
+
+    @Before
+    fun setUp() {
+        server.start()
+        cacheDir = Files.createTempDirectory("catalog-sync-test").toFile()
+        // Same setup as the app: an HTTP cache in front, so a 304 reaches the engine as the cached 200
+        val client = OkHttpClient.Builder().cache(Cache(cacheDir, 1024 * 1024)).build()
+        api = Retrofit.Builder()
+            .baseUrl(server.url("/"))
+            .client(client)
+            .addConverterFactory(MoshiConverterFactory.create(NetworkModule.moshi))
+            .build()
+            .create(MakeupApiService::class.java)
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        cacheDir.deleteRecursively()
+    }
+
+    @Test
+    fun appliesUpsertsAndDeletionsAndAdvancesWatermark() = runBlocking {
+        val a = product(1, "Lash Sensational", "2024-01-01T00:00:00.000Z")
+        val b = product(2, "Fit Me", "2024-01-02T00:00:00.000Z")
+        val c = product(3, "Super Stay", "2024-01-02T00:00:00.000Z")
+        val current = seed(listOf(a, b, c), watermark = "2024-01-02T00:00:00.000Z", validator = "\"v1\"")
+
+        // b renamed, c gone, d new; a comes back identical
+        val updatedB = b.copy(name = "Fit Me Matte", updatedAt = "2024-03-01T00:00:00.000Z")
+        val d = product(4, "Colossal", "2024-02-01T00:00:00.000Z")
+        server.enqueue(catalogResponse(listOf(a, updatedB, d), etag = "\"v2\""))
+
+        val result = engine.sync(current, api.getProductsStream())
+
+        assertTrue(result is CatalogSyncEngine.Result.Delta)
+        result as CatalogSyncEngine.Result.Delta
+        assertEquals(setOf(2, 4), result.changedIds)
+        assertEquals(setOf(3), result.deletedIds)
+        assertEquals(listOf(1, 2, 4), result.products.map { it.id })
+        assertEquals("Fit Me Matte", result.products[1].name)
+
+        // Room: c deleted, b kept its position, d appended after the last row
+        assertEquals(setOf(1, 2, 4), dao.products.keys)
+        assertEquals(1, dao.products.getValue(2).position)
+        assertEquals(3, dao.products.getValue(4).position)
+        assertEquals("Fit Me Matte", dao.searchRows.getValue(2).name)
+        assertNull(dao.searchRows[3])
+        assertTrue(dao.colors.none { it.productId == 3 })
+
+        val state = dao.syncStates.getValue(ProductRepository.CATALOG_ALL)
+        assertEquals("2024-03-01T00:00:00.000Z", state.watermark)
+        assertEquals("\"v2\"", state.validator)
+        assertEquals(now, state.lastSyncedAt)
+    }
+
+    @Test
+    fun roomKeepsEveryFieldTheMemoryCopyDrops() = runBlocking {
+        val a = product(1, "Fit Me", "2024-01-01T00:00:00.000Z")
+        val current = seed(listOf(a), watermark = "2024-01-01T00:00:00.000Z", validator = "\"v1\"")
+        val b = product(2, "Colossal", "2024-02-01T00:00:00.000Z")
+        server.enqueue(catalogResponse(listOf(a, b), etag = "\"v2\""))
+
+        val result = engine.sync(current, api.getProductsStream()) as CatalogSyncEngine.Result.Delta
+
+        // Rows written by the sync hold the product exactly as parsed, colors included
+        val stored = dao.getCatalog().map { it.toProduct() }
+        assertEquals(listOf(a, b), stored)
+        // The in-memory copy is the compacted one
+        assertEquals(CatalogCompactor().compact(b), result.products[1])
+        assertNull(result.products[1].currency)
+        assertEquals("#C0392B", result.products[1].productColors!![0].hexValue)
+    }
+
+    @Test
+    fun rowsAtOrBeforeWatermarkAreNotRewritten() = runBlocking {
+        val a = product(1, "Lash Sensational", "2024-01-01T00:00:00.000Z")
+        val b = product(2, "Fit Me", "2024-01-02T00:00:00.000Z")
+        val current = seed(listOf(a, b), watermark = "2024-01-02T00:00:00.000Z", validator = "\"v1\"")
+
+        // New validator, but nothing newer than the watermark: only the sync state moves
+        server.enqueue(catalogResponse(listOf(a, b), etag = "\"v2\""))
+        now = 2_000L
+
+        val result = engine.sync(current, api.getProductsStream())
+
+        assertEquals(CatalogSyncEngine.Result.Unchanged, result)
+        val state = dao.syncStates.getValue(ProductRepository.CATALOG_ALL)
+        assertEquals("2024-01-02T00:00:00.000Z", state.watermark)
+        assertEquals("\"v2\"", state.validator)
+        assertEquals(2_000L, state.lastSyncedAt)
+    }
+
+    @Test
+    fun matchingEtagSkipsParsing() = runBlocking {
+        val current = seed(listOf(product(1, "Fit Me", "2024-01-01T00:00:00.000Z")), "2024-01-01T00:00:00.000Z", "\"v1\"")
+        // Not valid JSON - would throw if the engine tried to parse it
+        server.enqueue(MockResponse().setHeader("ETag", "\"v1\"").setBody("[{ not json"))
+        now = 5_000L
+
+        val result = engine.sync(current, api.getProductsStream())
+
+        assertEquals(CatalogSyncEngine.Result.Unchanged, result)
+        assertEquals(setOf(1), dao.products.keys)
+        assertEquals(5_000L, dao.syncStates.getValue(ProductRepository.CATALOG_ALL).lastSyncedAt)
+    }
+
+    @Test
+    fun notModifiedIsServedFromCacheAndUnchanged() = runBlocking {
+        val a = product(1, "Fit Me", "2024-01-01T00:00:00.000Z")
+        var current = seed(listOf(a), "2024-01-01T00:00:00.000Z", "\"v1\"")
+        val b = product(2, "Colossal", "2024-02-01T00:00:00.000Z")
+        server.enqueue(catalogResponse(listOf(a, b), etag = "\"v2\""))
+        current = (engine.sync(current, api.getProductsStream()) as CatalogSyncEngine.Result.Delta).products
+
+        server.enqueue(MockResponse().setResponseCode(304).setHeader("ETag", "\"v2\""))
+        val result = engine.sync(current, api.getProductsStream())
+
+        assertEquals(CatalogSyncEngine.Result.Unchanged, result)
+        server.takeRequest()
+        assertEquals("\"v2\"", server.takeRequest().getHeader("If-None-Match"))
+        assertEquals(setOf(1, 2), dao.products.keys)
+    }
+
+    // Stores products the way a full refresh would (Room gets them as parsed) and returns the
+    // in-memory (compacted) list
+    private suspend fun seed(products: List<Product>, watermark: String?, validator: String?): List<Product> {
+        dao.replaceCatalog(
+            products = products.mapIndexed { i, p -> p.toCachedProduct(i) },
+            colors = products.flatMap { it.toCachedColors() },
+            tags = products.flatMap { it.toCachedTags() },
+            searchRows = products.map { it.toSearchRow() },
+            syncState = CatalogSyncState(ProductRepository.CATALOG_ALL, 0L, watermark, validator)
+        )
+        return CatalogCompactor().compactAll(products)
+    }
+
+    // no-cache: stored, but revalidated with If-None-Match every time
+    private fun catalogResponse(products: List<Product>, etag: String): MockResponse =
+        MockResponse()
+            .setHeader("ETag", etag)
+            .setHeader("Cache-Control", "no-cache")
+            .setHeader("Content-Type", "application/json")
+            .setBody(listAdapter.toJson(products))
+
+    private fun product(id: Int, name: String, updatedAt: String): Product = Product(
+        id = id,
+        brand = "maybelline",
+        name = name,
+        price = "9.99",
+        priceSign = "$",
+        currency = "USD",
+        imageLink = "https://example.com/$id.jpg",
+        productLink = "https://example.com/products/$id",
+        websiteLink = "https://www.maybelline.com",
+        description = null,
+        rating = 4.0,
+        category = "liquid",
+        productType = "lipstick",
+        tagList = listOf("vegan"),
+        createdAt = "2023-12-01T00:00:00.000Z",
+        updatedAt = updatedAt,
+        productApiUrl = "https://makeup-api.herokuapp.com/api/v1/products/$id.json",
+        apiFeaturedImage = "//s3.amazonaws.com/products/$id.png",
+        productColors = listOf(ProductColor("#c0392b", "Red"))
+    )
+}
@@ -0,0 +1,84 @@
+package com.example.beautyapp.data.catalog
+
+// In-memory CatalogDao for JVM tests. The @Transaction methods of CatalogDao run unchanged on top of it.
+class FakeCatalogDao : CatalogDao() {
+
+    val products = LinkedHashMap<Int, CachedProduct>()
+    val colors = ArrayList<CachedProductColor>()
+    val tags = ArrayList<CachedProductTag>()
+    val searchRows = LinkedHashMap<Int, CatalogSearchRow>()
+    val syncStates = HashMap<String, CatalogSyncState>()
+
+    override suspend fun getCatalog(): List<CachedProductWithDetails> =
+        products.values.sortedBy { it.position }.map { product ->
+            CachedProductWithDetails(
+                product,
+                colors.filter { it.productId == product.id },
+                tags.filter { it.productId == product.id }
+            )
+        }
+
+    override suspend fun search(matchQuery: String): List<SearchHit> = emptyList()
+
+    override suspend fun countProducts(): Int = products.size
+
+    override suspend fun insertProducts(products: List<CachedProduct>) {
+        products.forEach { this.products[it.id] = it }
+    }
+
+    override suspend fun insertColors(colors: List<CachedProductColor>) {
+        this.colors.addAll(colors)
+    }
+
+    override suspend fun insertTags(tags: List<CachedProductTag>) {
+        this.tags.addAll(tags)
+    }
+
+    override suspend fun insertSearchRows(rows: List<CatalogSearchRow>) {
+        rows.forEach { searchRows[it.productId] = it }
+    }
+
+    override suspend fun upsertProducts(products: List<CachedProduct>) {
+        insertProducts(products)
+    }
+
+    override suspend fun deleteAllProducts() {
+        products.clear()
+        colors.clear()
+        tags.clear()
+    }
+
+    override suspend fun deleteAllSearchRows() {
+        searchRows.clear()
+    }
+
+    override suspend fun deleteSearchRows(productIds: List<Int>) {
+        productIds.forEach { searchRows.remove(it) }
+    }
+
+    // Stands in for ON DELETE CASCADE
+    override suspend fun deleteProducts(ids: List<Int>) {
+        ids.forEach { products.remove(it) }
+        colors.removeAll { it.productId in ids }
+        tags.removeAll { it.productId in ids }
+    }
+
+    override suspend fun deleteColorsFor(productIds: List<Int>) {
+        colors.removeAll { it.productId in productIds }
+    }
+
+    override suspend fun deleteTagsFor(productIds: List<Int>) {
+        tags.removeAll { it.productId in productIds }
+    }
+
+    override suspend fun getPositions(ids: List<Int>): List<ProductPosition> =
+        ids.mapNotNull { id -> products[id]?.let { ProductPosition(id, it.position) } }
+
+    override suspend fun maxPosition(): Int? = products.values.maxOfOrNull { it.position }
+
+    override suspend fun getSyncState(catalog: String): CatalogSyncState? = syncStates[catalog]
+
+    override suspend fun upsertSyncState(state: CatalogSyncState) {
+        syncStates[state.catalog] = state
+    }
+}
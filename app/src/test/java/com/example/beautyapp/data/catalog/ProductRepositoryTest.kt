@@ -0,0 +1,104 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import com.example.beautyapp.data.ProductColor
+import com.example.beautyapp.network.MakeupApiService
+import com.example.beautyapp.network.NetworkModule
+import com.squareup.moshi.Types
+import kotlinx.coroutines.runBlocking
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import retrofit2.Retrofit
+import retrofit2.converter.moshi.MoshiConverterFactory
+import java.io.File
+import java.nio.file.Files
+
+// Full download: Room must get every field the API sent, even the ones compaction drops from memory
+class ProductRepositoryTest {
+
+    private val server = MockWebServer()
+    private val dao = FakeCatalogDao()
+    private lateinit var dir: File
+    private lateinit var repository: ProductRepository
+
+    private val listAdapter = NetworkModule.moshi.adapter<List<Product>>(
+        Types.newParameterizedType(List::class.java, Product::class.java)
+    )
+
+    @Before
+    fun setUp() {
+        server.start()
+        dir = Files.createTempDirectory("product-repository-test").toFile()
+        val api = Retrofit.Builder()
+            .baseUrl(server.url("/"))
+            .client(OkHttpClient())
+            .addConverterFactory(MoshiConverterFactory.create(NetworkModule.moshi))
+            .build()
+            .create(MakeupApiService::class.java)
+        repository = ProductRepository(dao, api, File(dir, CatalogSnapshot.FILE_NAME)) { 1_000L }
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        dir.deleteRecursively()
+    }
+
+    @Test
+    fun refreshStoresEveryFieldAndKeepsTheCompactCopy() = runBlocking {
+        val products = listOf(product(1), product(2), product(1).copy(name = "Repeated id"))
+        server.enqueue(MockResponse().setHeader("ETag", "\"v1\"").setBody(listAdapter.toJson(products)))
+
+        val catalog = repository.refresh()
+
+        // Room: first copy of each id, field for field
+        assertEquals(products.take(2), dao.getCatalog().map { it.toProduct() })
+        assertEquals("\"v1\"", dao.syncStates.getValue(ProductRepository.CATALOG_ALL).validator)
+
+        // Memory and the snapshot: compacted
+        assertEquals(CatalogCompactor().compactAll(products.take(2)), catalog.products)
+        assertNull(catalog.products[0].productLink)
+        assertTrue(catalog.products[0].productColors is PackedColors)
+        assertEquals(catalog.products, repository.loadCached().products)
+    }
+
+    @Test
+    fun catalogReadBackFromRoomIsCompacted() = runBlocking {
+        server.enqueue(MockResponse().setBody(listAdapter.toJson(listOf(product(1)))))
+        repository.refresh()
+        File(dir, CatalogSnapshot.FILE_NAME).delete()
+
+        val catalog = repository.loadCached()
+
+        assertEquals(listOf(CatalogCompactor().compact(product(1))), catalog.products)
+    }
+
+    private fun product(id: Int): Product = Product(
+        id = id,
+        brand = "maybelline",
+        name = "Super Stay $id",
+        price = "9.99",
+        priceSign = "$",
+        currency = "USD",
+        imageLink = "https://example.com/$id.jpg",
+        productLink = "https://example.com/products/$id",
+        websiteLink = "https://www.maybelline.com",
+        description = "Long-wear liquid lipstick",
+        rating = 4.5,
+        category = "liquid",
+        productType = "lipstick",
+        tagList = listOf("vegan"),
+        createdAt = "2023-12-01T00:00:00.000Z",
+        updatedAt = "2024-01-01T00:00:00.000Z",
+        productApiUrl = "https://makeup-api.herokuapp.com/api/v1/products/$id.json",
+        apiFeaturedImage = "//s3.amazonaws.com/products/$id.png",
+        productColors = listOf(ProductColor("#c0392b", "Red"), ProductColor("#C0392B, #000000", "Two tone"))
+    )
+}
@@ -0,0 +1,130 @@
+package com.example.beautyapp.data.catalog
+
+import com.example.beautyapp.data.Product
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import kotlin.random.Random
+
+class TrigramIndexTest {
+
+    private val catalog = listOf(
+        product(1, "maybelline", "Fit Me Matte Foundation"),
+        product(2, "l'oreal", "Colour Riche Lipstick"),
+        product(3, "revlon", "Super Lustrous Lipstick"),
+        product(4, "nyx", "Soft Matte Lip Cream"),
+        product(5, "maybelline", "Lash Sensational Mascara"),
+        product(6, "clinique", "Even Better Foundation")
+    )
+    private val index = TrigramIndex.build(catalog)
+
+    @Test
+    fun misspelledBrandFindsIt() {
+        val hits = index.search("maybeline", catalog)
+
+        assertEquals(setOf(0, 4), hits.toSet())
+    }
+
+    @Test
+    fun apostropheAndTyposAreTolerated() {
+        assertEquals(1, index.search("loreal", catalog).first())
+        assertEquals(2, index.search("revlom", catalog).first())
+        assertEquals(listOf(0, 5), index.search("foundaton", catalog).toList())
+    }
+
+    @Test
+    fun closerMatchRanksFirst() {
+        // "lipstick" is exact for both lipsticks; the brand decides between them
+        assertEquals(2, index.search("revlon lipstick", catalog).first())
+        assertEquals(1, index.search("loreal lipstik", catalog).first())
+    }
+
+    @Test
+    fun shortWordsMustMatchExactly() {
+        assertEquals(listOf(3), index.search("nyx", catalog).toList())
+        assertEquals(0, index.search("nyz", catalog).size)
+    }
+
+    @Test
+    fun noMatchOrBlankQueryIsEmpty() {
+        assertEquals(0, index.search("zzzzzz", catalog).size)
+        assertEquals(0, index.search("  ", catalog).size)
+        assertEquals(0, TrigramIndex.EMPTY.search("maybelline", emptyList()).size)
+    }
+
+    @Test
+    fun boundedLevenshteinWithinBudget() {
+        assertEquals(0, TrigramIndex.boundedLevenshtein("lipstick", "lipstick", 2))
+        assertEquals(1, TrigramIndex.boundedLevenshtein("lipstik", "lipstick", 1))   // deletion
+        assertEquals(1, TrigramIndex.boundedLevenshtein("lipstack", "lipstick", 1))  // substitution
+        assertEquals(2, TrigramIndex.boundedLevenshtein("lpistick", "lipstick", 2))  // transposition = 2 edits
+        assertEquals(0, TrigramIndex.boundedLevenshtein("", "lipstick", 0))
+    }
+
+    @Test
+    fun boundedLevenshteinGivesUpPastBudget() {
+        // Exactly at the budget still counts, one more returns max + 1
+        assertEquals(2, TrigramIndex.boundedLevenshtein("lpistick", "lipstick", 2))
+        assertEquals(2, TrigramIndex.boundedLevenshtein("lpistick", "lipstick", 1))
+        assertEquals(1, TrigramIndex.boundedLevenshtein("lipstack", "lipstick", 0))
+        // Query longer than the target by more than the budget is rejected up front
+        assertEquals(3, TrigramIndex.boundedLevenshtein("lipsticks!!", "lipstick", 2))
+        assertEquals(1, TrigramIndex.boundedLevenshtein("abc", "xyz", 0))
+    }
+
+    @Test
+    fun boundedLevenshteinMatchesPrefixes() {
+        assertEquals(0, TrigramIndex.boundedLevenshtein("maybel", "maybelline", 1))
+        assertEquals(1, TrigramIndex.boundedLevenshtein("maybek", "maybelline", 1))
+        // Only the target is cut short: an extra letter in the query is still an edit
+        assertEquals(1, TrigramIndex.boundedLevenshtein("maybellines", "maybelline", 1))
+        assertEquals(1, TrigramIndex.boundedLevenshtein("maybellines", "maybelline", 0))
+    }
+
+    // Candidate generation + re-ranking on a catalog ~10x the live API. The bound is loose on purpose
+    // (slow CI machines), it's there to catch an accidental full scan with edit distance per product.
+    @Test
+    fun searchStaysFastOnLargeCatalog() {
+        val random = Random(7)
+        val brands = listOf("maybelline", "l'oreal", "revlon", "nyx", "clinique", "covergirl", "milani", "smashbox")
+        val words = listOf("super", "stay", "matte", "lash", "sensational", "colour", "riche", "lustrous",
+            "soft", "cream", "fit", "me", "even", "better", "velvet", "gloss", "liner", "glow", "bronzer")
+        val large = List(10_000) { i ->
+            product(i, brands.random(random), List(3) { words.random(random) }.joinToString(" "))
+        }
+        val largeIndex = TrigramIndex.build(large)
+        val queries = listOf("maybeline", "lorel colour", "revlom lustrus", "sensatonal lash", "smashbx", "velvet glos")
+
+        repeat(5) { queries.forEach { largeIndex.search(it, large) } }  // warm-up
+        val rounds = 20
+        val start = System.nanoTime()
+        repeat(rounds) { queries.forEach { largeIndex.search(it, large) } }
+        val perQueryMs = (System.nanoTime() - start) / 1_000_000.0 / (rounds * queries.size)
+        println("TrigramIndex: %.2f ms per query over %d products".format(perQueryMs, large.size))
+
+        assertTrue(largeIndex.search("maybeline", large).isNotEmpty())
+        assertTrue("took $perQueryMs ms per query", perQueryMs < 50.0)
+    }
+
+    private fun product(id: Int, brand: String, name: String): Product = Product(
+        id = id,
+        brand = brand,
+        name = name,
+        price = null,
+        priceSign = null,
+        currency = null,
+        imageLink = null,
+        productLink = null,
+        websiteLink = null,
+        description = null,
+        rating = null,
+        category = null,
+        productType = null,
+        tagList = null,
+        createdAt = null,
+        updatedAt = null,
+        productApiUrl = null,
+        apiFeaturedImage = null,
+        productColors = null
+    )
+}
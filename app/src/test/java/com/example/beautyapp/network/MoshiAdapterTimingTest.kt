@@ -0,0 +1,98 @@
+package com.example.beautyapp.network
+
+import com.example.beautyapp.data.Product
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.JsonReader
+import com.squareup.moshi.Moshi
+import com.squareup.moshi.Types
+import com.squareup.moshi.kotlin.reflect.KotlinJsonAdapterFactory
+import okio.Buffer
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.lang.management.ManagementFactory
+
+// Cold start of the products.json parse: creating the List<Product> adapter plus the first parse of
+// a payload shaped like the Makeup API's, generated adapters vs the reflective KotlinJsonAdapterFactory.
+// Every measurement gets a Moshi of its own, so no adapter cached by an earlier one is reused.
+class MoshiAdapterTimingTest {
+
+    private val listType = Types.newParameterizedType(List::class.java, Product::class.java)
+    private val fixture: ByteArray = javaClass.classLoader!!.getResource("products.json")!!.readBytes()
+
+    private class ColdParse(val adapterNanos: Long, val parseNanos: Long, val allocatedBytes: Long, val products: List<Product>) {
+        val totalNanos: Long get() = adapterNanos + parseNanos
+    }
+
+    @Test
+    fun generatedAdaptersParseFixtureLikeReflectiveOnes() {
+        val generated = coldParse(NetworkModule.newMoshi())
+        val reflective = coldParse(reflectiveMoshi())
+
+        assertEquals(200, generated.products.size)
+        assertEquals(reflective.products, generated.products)
+    }
+
+    // Reported, not asserted: one wall-clock comparison is at the mercy of the JIT, GC and whatever
+    // else the machine is doing. The first round also pays for class loading; later rounds are a new
+    // Moshi each (nothing cached in it) on a warm JVM, and their median is what's reported for them.
+    @Test
+    fun reportColdParseCost() {
+        if (!hasGeneratedAdapter()) println("Moshi: no generated ProductJsonAdapter on the classpath, both sides are reflective")
+        warmUpShared()
+
+        // Generated goes first, so it pays for any class loading the two share
+        val generated = List(ROUNDS) { coldParse(NetworkModule.newMoshi()) }
+        val reflective = List(ROUNDS) { coldParse(reflectiveMoshi()) }
+
+        report("NetworkModule", generated)
+        report("reflective", reflective)
+        assertEquals(reflective.last().products, generated.last().products)
+    }
+
+    private fun coldParse(moshi: Moshi): ColdParse {
+        val allocatedBefore = allocatedBytes()
+        val start = System.nanoTime()
+        val adapter: JsonAdapter<List<Product>> = moshi.adapter(listType)
+        val created = System.nanoTime()
+        val products = adapter.fromJson(Buffer().write(fixture))!!
+        val parsed = System.nanoTime()
+        return ColdParse(created - start, parsed - created, allocatedBytes() - allocatedBefore, products)
+    }
+
+    // Loads Moshi's and Okio's own classes first, so neither side is charged for them
+    private fun warmUpShared() {
+        JsonReader.of(Buffer().writeUtf8("""[{"a":1,"b":[true,null,"c"]}]""")).readJsonValue()
+        Moshi.Builder().build().adapter(String::class.java).fromJson("\"x\"")
+    }
+
+    private fun hasGeneratedAdapter(): Boolean =
+        runCatching { Class.forName("com.example.beautyapp.data.ProductJsonAdapter") }.isSuccess
+
+    // -1 where the JVM can't count per-thread allocations
+    private fun allocatedBytes(): Long {
+        val threads = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean ?: return -1
+        return threads.getThreadAllocatedBytes(Thread.currentThread().id)
+    }
+
+    private fun reflectiveMoshi(): Moshi = Moshi.Builder().add(KotlinJsonAdapterFactory()).build()
+
+    private fun report(label: String, rounds: List<ColdParse>) {
+        val first = rounds.first()
+        val later = rounds.drop(1)
+        println(
+            "Moshi $label, first round: adapter ${ms(first.adapterNanos)} ms, parse ${ms(first.parseNanos)} ms, " +
+                "${first.allocatedBytes / 1024} KB allocated; later rounds (median of ${later.size}): " +
+                "adapter ${ms(median(later) { it.adapterNanos })} ms, parse ${ms(median(later) { it.parseNanos })} ms, " +
+                "${median(later) { it.allocatedBytes } / 1024} KB allocated; ${fixture.size / 1024} KB payload"
+        )
+    }
+
+    private fun median(rounds: List<ColdParse>, value: (ColdParse) -> Long): Long =
+        rounds.map(value).sorted()[rounds.size / 2]
+
+    private fun ms(nanos: Long): String = "%.1f".format(nanos / 1_000_000.0)
+
+    private companion object {
+        const val ROUNDS = 9
+    }
+}
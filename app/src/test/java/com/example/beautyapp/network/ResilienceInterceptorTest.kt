@@ -0,0 +1,271 @@
+package com.example.beautyapp.network
+
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.suspendCancellableCoroutine
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.SocketPolicy
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+import kotlin.random.Random
+
+// Fault injection against a MockWebServer: scripted 503s / dropped connections, a fake clock that the
+// backoff "sleeps" forward, and a random source that always picks the longest backoff.
+class ResilienceInterceptorTest {
+
+    private val server = MockWebServer()
+    private var now = 0L
+    private val sleeps = ArrayList<Long>()
+    private var onSleep: () -> Unit = {}
+
+    private val longestBackoff = object : Random() {
+        override fun nextBits(bitCount: Int): Int = 0
+        override fun nextLong(until: Long): Long = until - 1
+    }
+
+    private fun interceptor(baseBackoffMillis: Long = 300, failureThreshold: Int = 3) = ResilienceInterceptor(
+        baseBackoffMillis = baseBackoffMillis,
+        clock = { now },
+        sleeper = { millis ->
+            sleeps.add(millis)
+            now += millis
+            onSleep()
+        },
+        random = longestBackoff,
+        breakerFactory = { CircuitBreaker(failureThreshold = failureThreshold, openForMillis = 30_000, clock = { now }) }
+    )
+
+    private var resilience = interceptor()
+    private lateinit var client: OkHttpClient
+
+    // OkHttp's own silent retry is off, so every dropped connection reaches the interceptor
+    @Before
+    fun setUp() {
+        server.start()
+        client = OkHttpClient.Builder().retryOnConnectionFailure(false).addInterceptor(resilience).build()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    // Matches LatencyBudget.MAKEUP_PRODUCTS: 3 attempts, 40s budget
+    private fun productsCall(httpClient: OkHttpClient = client): Call =
+        httpClient.newCall(Request.Builder().url(server.url("/api/v1/products.json")).build())
+
+    private val breaker: CircuitBreaker get() = resilience.breakerFor(server.hostName)
+
+    @Test
+    fun retriesServerErrorsAndDroppedConnectionsUntilSuccess() {
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST))
+        server.enqueue(MockResponse().setBody("[]"))
+
+        productsCall().execute().use { response ->
+            assertEquals(200, response.code)
+            assertEquals("[]", response.body!!.string())
+        }
+
+        assertEquals(3, server.requestCount)
+        // Full jitter capped at 300 then 600 ms, in slices of at most 100 ms
+        assertEquals(900L, sleeps.sum())
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state())
+    }
+
+    @Test
+    fun givesUpAfterMaxAttemptsWithLastResponse() {
+        repeat(4) { server.enqueue(MockResponse().setResponseCode(503)) }
+
+        productsCall().execute().use { assertEquals(503, it.code) }
+
+        assertEquals(3, server.requestCount)
+    }
+
+    @Test
+    fun breakerOpensAndFailsFastWithoutTouchingServer() {
+        repeat(3) { server.enqueue(MockResponse().setResponseCode(503)) }
+        productsCall().execute().close()
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state())
+
+        try {
+            productsCall().execute()
+            fail("expected CircuitOpenException")
+        } catch (e: CircuitOpenException) {
+            // expected
+        }
+        assertEquals(3, server.requestCount)
+    }
+
+    @Test
+    fun halfOpenTrialSuccessClosesBreaker() {
+        repeat(3) { server.enqueue(MockResponse().setResponseCode(503)) }
+        productsCall().execute().close()
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state())
+
+        now += 30_000
+        server.enqueue(MockResponse().setBody("[]"))
+        productsCall().execute().use { assertEquals(200, it.code) }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state())
+        server.enqueue(MockResponse().setBody("[]"))
+        productsCall().execute().use { assertEquals(200, it.code) }
+    }
+
+    @Test
+    fun halfOpenTrialFailureReopensWithoutRetrying() {
+        repeat(3) { server.enqueue(MockResponse().setResponseCode(503)) }
+        productsCall().execute().close()
+
+        now += 30_000
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setBody("[]"))  // must not be reached
+        productsCall().execute().use { assertEquals(503, it.code) }
+
+        assertEquals(4, server.requestCount)
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state())
+    }
+
+    @Test
+    fun halfOpenLetsSeveralTrialsThroughAndForgetsStuckOnes() {
+        val breaker = CircuitBreaker(failureThreshold = 1, openForMillis = 1_000, halfOpenMaxCalls = 2, clock = { now })
+        breaker.onFailure()
+        assertFalse(breaker.allowRequest())
+
+        now += 1_000
+        assertTrue(breaker.allowRequest())
+        assertTrue(breaker.allowRequest())
+        assertFalse(breaker.allowRequest())
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state())
+
+        // Neither trial ever reported back: after another cool-down new trials are let through
+        now += 1_000
+        assertTrue(breaker.allowRequest())
+
+        breaker.onSuccess()
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state())
+    }
+
+    @Test
+    fun backoffNeverRunsPastCallTimeout() {
+        resilience = interceptor(baseBackoffMillis = 800)
+        val timed = OkHttpClient.Builder()
+            .retryOnConnectionFailure(false)
+            .addInterceptor(resilience)
+            .callTimeout(1, TimeUnit.SECONDS)
+            .build()
+        repeat(3) { server.enqueue(MockResponse().setResponseCode(503)) }
+
+        productsCall(timed).execute().use { assertEquals(503, it.code) }
+
+        // 800 ms fits in the 1 s call timeout, the next 1.6 s backoff doesn't - no third attempt
+        assertEquals(2, server.requestCount)
+        assertEquals(800L, sleeps.sum())
+    }
+
+    @Test
+    fun cancelledCallStopsBackingOff() {
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setBody("[]"))
+        val call = productsCall()
+        onSleep = { call.cancel() }
+
+        try {
+            call.execute()
+            fail("expected the cancelled call to fail")
+        } catch (e: IOException) {
+            // expected
+        }
+
+        assertEquals(1, server.requestCount)
+        assertEquals(listOf(100L), sleeps)  // stopped after the first slice
+    }
+
+    @Test
+    fun hedgeLosersDoNotTripTheBreaker() = runBlocking {
+        // The winner's success resets the failure count before the loser is cancelled, so a single
+        // counted failure would already show with a threshold of 1
+        resilience = interceptor(failureThreshold = 1)
+        client = OkHttpClient.Builder().retryOnConnectionFailure(false).addInterceptor(resilience).build()
+
+        // Each round: the first copy hangs, the hedge answers, the first copy is cancelled
+        repeat(3) {
+            server.enqueue(MockResponse().setBody("slow").setHeadersDelay(1, TimeUnit.SECONDS))
+            server.enqueue(MockResponse().setBody("fast"))
+            val body = Resilience.hedged(hedgeAfterMillis = 50) { productsCall().await() }
+            assertEquals("fast", body)
+            awaitIdle()
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state())
+        assertEquals(6, server.requestCount)
+    }
+
+    @Test
+    fun replacedFetchesDoNotTripTheBreaker() {
+        // Latest-wins: each new fetch cancels the one before it while it's still waiting on the server
+        repeat(3) {
+            server.enqueue(MockResponse().setBody("slow").setHeadersDelay(1, TimeUnit.SECONDS))
+            val call = productsCall()
+            call.enqueue(object : Callback {
+                override fun onResponse(call: Call, response: Response) = response.close()
+                override fun onFailure(call: Call, e: IOException) = Unit
+            })
+            while (server.requestCount <= it) Thread.sleep(10)
+            call.cancel()
+            awaitIdle()
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state())
+    }
+
+    @Test
+    fun cancelledTrialGivesItsSlotBack() {
+        val breaker = CircuitBreaker(failureThreshold = 1, openForMillis = 1_000, halfOpenMaxCalls = 1, clock = { now })
+        breaker.onFailure()
+        now += 1_000
+
+        assertTrue(breaker.allowRequest())
+        assertFalse(breaker.allowRequest())
+        breaker.onCancelled()
+        assertTrue(breaker.allowRequest())
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state())
+    }
+
+    // Like Retrofit's suspend calls: cancelling the coroutine cancels the OkHttp call
+    private suspend fun Call.await(): String = suspendCancellableCoroutine { continuation ->
+        continuation.invokeOnCancellation { cancel() }
+        enqueue(object : Callback {
+            override fun onResponse(call: Call, response: Response) {
+                continuation.resume(response.use { it.body!!.string() })
+            }
+
+            override fun onFailure(call: Call, e: IOException) {
+                continuation.resumeWithException(e)
+            }
+        })
+    }
+
+    // The cancelled copy fails on an OkHttp thread after hedged() has returned
+    private fun awaitIdle() {
+        val giveUpAt = System.currentTimeMillis() + 5_000
+        while (client.dispatcher.runningCallsCount() > 0) {
+            if (System.currentTimeMillis() > giveUpAt) fail("calls still running")
+            Thread.sleep(10)
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.beautyapp.utils
+
+import com.example.beautyapp.data.Shade
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Test
+import kotlin.random.Random
+
+// Synthetic ARGB frames instead of photos: skin-colored blocks on a blue (non-skin) background
+class SkinToneExtractorTest {
+
+    private val light = Shade(1, "#FFDBAC", "warm", "Light")
+    private val tan = Shade(2, "#E0AC69", "warm", "Tan")
+    private val deep = Shade(3, "#8D5524", "warm", "Deep")
+    private val shades = listOf(light, tan, deep)
+
+    private val background = 0xFF3050C0.toInt()
+
+    @Test
+    fun knownSkinToneMapsToClosestShade() = runBlocking {
+        val pixels = frame(100, 100) { x, y -> if (x in 20 until 80 && y in 20 until 80) 0xFFE0AC69.toInt() else background }
+
+        val tone = SkinToneExtractor.fromPixels(pixels, shades)
+
+        assertNotNull(tone)
+        assertEquals(tan, tone!!.shade)
+        assertEquals(1f, tone.coverage, 0.001f)
+    }
+
+    @Test
+    fun tooLittleSkinReturnsNull() = runBlocking {
+        // 7 x 7 = 49 skin pixels, one short of the minimum
+        val pixels = frame(100, 100) { x, y -> if (x < 7 && y < 7) 0xFFE0AC69.toInt() else background }
+
+        assertNull(SkinToneExtractor.fromPixels(pixels, shades))
+        assertNull(SkinToneExtractor.fromPixels(frame(100, 100) { _, _ -> background }, shades))
+    }
+
+    @Test
+    fun noShadesStillReturnsTone() = runBlocking {
+        val pixels = frame(50, 50) { _, _ -> 0xFFE0AC69.toInt() }
+
+        val tone = SkinToneExtractor.fromPixels(pixels, emptyList())
+
+        assertNotNull(tone)
+        assertNull(tone!!.shade)
+    }
+
+    @Test
+    fun resultIsDeterministic() = runBlocking {
+        // Noisy mix of three tones, so k-means seeding actually matters
+        val random = Random(7)
+        val tones = intArrayOf(0xFFFFDBAC.toInt(), 0xFFE0AC69.toInt(), 0xFF8D5524.toInt())
+        val pixels = frame(300, 300) { _, _ ->
+            val base = tones[random.nextInt(tones.size)]
+            val jitter = random.nextInt(-6, 7)
+            val r = ((base shr 16) and 0xFF) + jitter
+            val g = ((base shr 8) and 0xFF) + jitter
+            val b = (base and 0xFF) + jitter
+            (0xFF shl 24) or (r.coerceIn(0, 255) shl 16) or (g.coerceIn(0, 255) shl 8) or b.coerceIn(0, 255)
+        }
+
+        val first = SkinToneExtractor.fromPixels(pixels, shades)!!
+        repeat(3) {
+            val again = SkinToneExtractor.fromPixels(pixels, shades)!!
+            assertEquals(first.argb, again.argb)
+            assertEquals(first.shade, again.shade)
+            assertEquals(first.coverage, again.coverage, 0f)
+        }
+    }
+
+    @Test
+    fun samplingCoversWholeFrame() = runBlocking {
+        // 11000 skin pixels (more than MAX_SAMPLES, less than twice it): 5000 light on top, 6000 deep below.
+        // Sampling only the first MAX_SAMPLES would see mostly light; every other pixel sees both halves.
+        val pixels = frame(100, 110) { _, y -> if (y < 50) 0xFFFFDBAC.toInt() else 0xFF8D5524.toInt() }
+
+        val tone = SkinToneExtractor.fromPixels(pixels, shades)
+
+        assertNotNull(tone)
+        assertEquals(deep, tone!!.shade)
+        assertEquals(6000f / 11000f, tone.coverage, 0.01f)
+    }
+
+    private fun frame(width: Int, height: Int, color: (Int, Int) -> Int): IntArray =
+        IntArray(width * height) { color(it % width, it / width) }
+}